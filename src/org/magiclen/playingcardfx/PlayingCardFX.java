@@ -17,7 +17,10 @@
  */
 package org.magiclen.playingcardfx;
 
+import java.lang.management.ManagementFactory;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
 import javafx.scene.paint.Color;
@@ -25,6 +28,7 @@ import javafx.scene.text.Font;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import org.magiclen.playingcardfx.pages.Main;
+import org.magiclen.playingcardfx.playingcard.CardTheme;
 
 /**
  * 使用JavaFX畫出撲克牌。
@@ -36,7 +40,8 @@ public class PlayingCardFX extends Application {
     // -----類別常數-----
     private static final int WIDTH = 720;
     private static final int HEIGHT = 575;
-    private static final String FONT_URL = "/org/magiclen/playingcardfx/resources/NotoSansCJKtc-Regular.otf";
+    public static final String FONT_URL = "/org/magiclen/playingcardfx/resources/NotoSansCJKtc-Regular.otf";
+    private static final String MEASURE_STARTUP_OPTION = "--measure-startup";
 
     // -----類別變數-----
     private static Stage primaryStage;
@@ -51,7 +56,7 @@ public class PlayingCardFX extends Application {
      */
     @Override
     public void start(final Stage primaryStage) {
-	Font.loadFont(getClass().getResource(FONT_URL).toExternalForm(), 10);
+	final boolean measureStartup = getParameters().getRaw().contains(MEASURE_STARTUP_OPTION);
 
 	main = new Main();
 	PlayingCardFX.primaryScene = new Scene(main, WIDTH, HEIGHT, Color.WHITESMOKE);
@@ -67,12 +72,57 @@ public class PlayingCardFX extends Application {
 	primaryStage.setY((screen.getHeight() - HEIGHT) / 2);
 	primaryStage.setResizable(true);
 	primaryStage.show();
+
+	if (measureStartup) {
+	    new AnimationTimer() {
+		@Override
+		public void handle(final long now) {
+		    stop();
+		    System.out.println("Time to first frame: " + getUptime() + " ms");
+		}
+	    }.start();
+	}
+	loadFont(measureStartup);
+    }
+
+    /**
+     * <p>
+     * 在背景執行緒載入字型，避免在顯示視窗前卡住JavaFX應用程式執行緒。
+     * </p>
+     * <p>
+     * 字型載入完成前，撲克牌會先以系統預設的字型繪製，載入完成後再重繪。
+     * </p>
+     *
+     * @param measureStartup 傳入是否顯示載入所花費的時間
+     */
+    private void loadFont(final boolean measureStartup) {
+	final String url = getClass().getResource(FONT_URL).toExternalForm();
+	final Thread thread = new Thread(() -> {
+	    Font.loadFont(url, 10);
+	    if (measureStartup) {
+		System.out.println("Time to font loaded: " + getUptime() + " ms");
+	    }
+	    //字型載入前建立的字型表使用的是預設字型，必須讓它們過期
+	    CardTheme.invalidateFonts();
+	    Platform.runLater(main::refresh);
+	}, "Font Loader");
+	thread.setDaemon(true);
+	thread.start();
+    }
+
+    /**
+     * 取得JVM啟動至今的時間。
+     *
+     * @return 傳回JVM啟動至今的時間(毫秒)
+     */
+    private static long getUptime() {
+	return ManagementFactory.getRuntimeMXBean().getUptime();
     }
 
     /**
      * 程式進入點。
      *
-     * @param args 傳入參數(用不到)
+     * @param args 傳入參數，加上--measure-startup可以顯示啟動所花費的時間
      */
     public static void main(final String[] args) {
 	launch(args);
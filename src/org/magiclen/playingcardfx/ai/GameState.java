@@ -0,0 +1,109 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.ai;
+
+import java.util.SplittableRandom;
+
+/**
+ * <p>
+ * 給搜尋引擎使用的遊戲狀態介面。
+ * </p>
+ * <p>
+ * 動作以0~63的整數表示，合法動作以long的位元集合傳回(通常就是手牌的CardSet)，因此產生合法動作時不需要建立物件。搜尋時會大量複製與修改狀態，實作應該只使用基本型態的欄位。
+ * </p>
+ *
+ * @author Magic Len
+ * @param <S> 實作的類別
+ */
+public interface GameState<S extends GameState<S>> {
+
+    /**
+     * 動作的最大數量。
+     */
+    int MAX_MOVES = 64;
+
+    /**
+     * 取得玩家數量。
+     *
+     * @return 傳回玩家數量
+     */
+    int getPlayerCount();
+
+    /**
+     * 取得目前要行動的玩家。
+     *
+     * @return 傳回玩家編號
+     */
+    int getCurrentPlayer();
+
+    /**
+     * 判斷遊戲是否已經結束。
+     *
+     * @return 傳回遊戲是否已經結束
+     */
+    boolean isTerminal();
+
+    /**
+     * 取得目前玩家的合法動作。
+     *
+     * @return 傳回合法動作的位元集合，第i個位元代表動作i
+     */
+    long legalMoves();
+
+    /**
+     * 執行動作。
+     *
+     * @param move 傳入動作
+     */
+    void apply(int move);
+
+    /**
+     * 取得遊戲結束時某個玩家的報酬。
+     *
+     * @param player 傳入玩家編號
+     * @return 傳回報酬(0~1)
+     */
+    double getReward(int player);
+
+    /**
+     * <p>
+     * 將狀態確定化(determinize)。
+     * </p>
+     * <p>
+     * 保留觀察者看得到的資訊(自己的手牌和已經打出的牌)，將其他玩家看不到的牌隨機重新分配，用於資訊集蒙地卡羅樹搜尋。
+     * </p>
+     *
+     * @param observer 傳入觀察者的玩家編號
+     * @param random 傳入亂數產生器
+     */
+    void determinize(int observer, SplittableRandom random);
+
+    /**
+     * 複製另一個狀態的內容，不建立新物件。
+     *
+     * @param other 傳入另一個狀態
+     */
+    void copyFrom(S other);
+
+    /**
+     * 建立狀態的複本。
+     *
+     * @return 傳回狀態的複本
+     */
+    S copy();
+}
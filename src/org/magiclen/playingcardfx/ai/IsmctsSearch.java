@@ -0,0 +1,366 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.ai;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.magiclen.playingcardfx.playingcard.CardSet;
+
+/**
+ * <p>
+ * 資訊集蒙地卡羅樹搜尋(Single-Observer ISMCTS)引擎。
+ * </p>
+ * <p>
+ * 每次迭代先將狀態確定化，再以UCB搭配可用次數(availability)選擇節點、展開一個節點、隨機模擬到遊戲結束，最後回傳報酬。
+ * </p>
+ * <p>
+ * 採用根平行化：每個執行緒各自建立一棵樹，時間到了之後再把根節點各個動作的拜訪次數加總，選出拜訪次數最多的動作。每個執行緒的節點都存放在預先配置好的節點池中，並在每次決策時重複使用，搜尋過程中不會建立物件。節點池用完時，不再展開新的節點。
+ * </p>
+ * <p>
+ * 同一個搜尋引擎一次只能進行一個搜尋。
+ * </p>
+ *
+ * @author Magic Len
+ * @param <S> 遊戲狀態的類別
+ */
+public class IsmctsSearch<S extends GameState<S>> implements Closeable {
+
+    // -----類別常數-----
+    /**
+     * 預設的探索常數。
+     */
+    public static final double DEFAULT_EXPLORATION = 0.7;
+    /**
+     * 預設每個執行緒的節點池大小。
+     */
+    public static final int DEFAULT_NODE_CAPACITY = 1 << 18;
+
+    // -----內部類別-----
+    /**
+     * 單一執行緒的搜尋工作，擁有自己的節點池、狀態和亂數產生器。
+     *
+     * @param <S> 遊戲狀態的類別
+     */
+    private static final class Worker<S extends GameState<S>> {
+
+	/**
+	 * 節點池大小。
+	 */
+	private final int capacity;
+	/**
+	 * 探索常數。
+	 */
+	private final double exploration;
+	/**
+	 * 亂數產生器。
+	 */
+	private final SplittableRandom random;
+	/**
+	 * 每個節點的父節點、第一個子節點、下一個兄弟節點。
+	 */
+	private final int[] parents, firstChildren, nextSiblings;
+	/**
+	 * 每個節點的動作，以及做出這個動作的玩家。
+	 */
+	private final int[] moves, players;
+	/**
+	 * 每個節點的拜訪次數與可用次數。
+	 */
+	private final int[] visits, available;
+	/**
+	 * 每個節點累積的報酬。
+	 */
+	private final double[] rewards;
+	/**
+	 * 搜尋時使用的狀態。
+	 */
+	private S state;
+	/**
+	 * 已使用的節點數量。
+	 */
+	private int size;
+	/**
+	 * 上一次搜尋的迭代次數。
+	 */
+	private long iterations;
+
+	/**
+	 * 建構子，配置節點池。
+	 *
+	 * @param capacity 傳入節點池大小
+	 * @param exploration 傳入探索常數
+	 * @param random 傳入亂數產生器
+	 */
+	private Worker(final int capacity, final double exploration, final SplittableRandom random) {
+	    this.capacity = capacity;
+	    this.exploration = exploration;
+	    this.random = random;
+	    parents = new int[capacity];
+	    firstChildren = new int[capacity];
+	    nextSiblings = new int[capacity];
+	    moves = new int[capacity];
+	    players = new int[capacity];
+	    visits = new int[capacity];
+	    available = new int[capacity];
+	    rewards = new double[capacity];
+	}
+
+	/**
+	 * 從節點池中取出一個新節點。
+	 *
+	 * @param parent 傳入父節點，-1表示根節點
+	 * @param move 傳入動作
+	 * @param player 傳入做出動作的玩家
+	 * @return 傳回新節點
+	 */
+	private int newNode(final int parent, final int move, final int player) {
+	    final int node = size++;
+	    parents[node] = parent;
+	    firstChildren[node] = -1;
+	    moves[node] = move;
+	    players[node] = player;
+	    visits[node] = 0;
+	    available[node] = 1;
+	    rewards[node] = 0;
+	    if (parent >= 0) {
+		nextSiblings[node] = firstChildren[parent];
+		firstChildren[parent] = node;
+	    } else {
+		nextSiblings[node] = -1;
+	    }
+	    return node;
+	}
+
+	/**
+	 * 搜尋直到時間用完。
+	 *
+	 * @param root 傳入根狀態，不會被修改
+	 * @param observer 傳入觀察者的玩家編號
+	 * @param deadline 傳入結束時間(System.nanoTime()的值)
+	 * @param minIterations 傳入最少的迭代次數
+	 */
+	private void search(final S root, final int observer, final long deadline, final int minIterations) {
+	    if (state == null) {
+		state = root.copy();
+	    }
+	    size = 0;
+	    newNode(-1, -1, -1);
+	    long n = 0;
+	    while (n < minIterations || System.nanoTime() < deadline) {
+		iterate(root, observer);
+		++n;
+	    }
+	    iterations = n;
+	}
+
+	/**
+	 * 進行一次迭代。
+	 *
+	 * @param root 傳入根狀態
+	 * @param observer 傳入觀察者的玩家編號
+	 */
+	private void iterate(final S root, final int observer) {
+	    state.copyFrom(root);
+	    state.determinize(observer, random);
+	    int node = 0;
+
+	    //選擇與展開
+	    while (!state.isTerminal()) {
+		final long legal = state.legalMoves();
+		long untried = legal;
+		for (int c = firstChildren[node]; c >= 0; c = nextSiblings[c]) {
+		    untried = CardSet.remove(untried, moves[c]);
+		}
+		if (untried != CardSet.EMPTY) {
+		    if (size < capacity) {
+			final int move = CardSet.random(untried, random);
+			node = newNode(node, move, state.getCurrentPlayer());
+			state.apply(move);
+		    }
+		    break;
+		}
+		int best = -1;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int c = firstChildren[node]; c >= 0; c = nextSiblings[c]) {
+		    if (!CardSet.contains(legal, moves[c])) {
+			continue;
+		    }
+		    final int v = visits[c];
+		    final double score = v == 0 ? Double.POSITIVE_INFINITY : rewards[c] / v + exploration * Math.sqrt(Math.log(available[c]) / v);
+		    ++available[c];
+		    if (score > bestScore) {
+			bestScore = score;
+			best = c;
+		    }
+		}
+		state.apply(moves[best]);
+		node = best;
+	    }
+
+	    //隨機模擬
+	    while (!state.isTerminal()) {
+		state.apply(CardSet.random(state.legalMoves(), random));
+	    }
+
+	    //回傳報酬
+	    for (int c = node; c > 0; c = parents[c]) {
+		++visits[c];
+		rewards[c] += state.getReward(players[c]);
+	    }
+	    ++visits[0];
+	}
+
+	/**
+	 * 將根節點各個動作的拜訪次數加到陣列中。
+	 *
+	 * @param totals 傳入以動作為索引的陣列
+	 */
+	private void collect(final long[] totals) {
+	    for (int c = firstChildren[0]; c >= 0; c = nextSiblings[c]) {
+		totals[moves[c]] += visits[c];
+	    }
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存搜尋工作。
+     */
+    private final List<Worker<S>> workers = new ArrayList<>();
+    /**
+     * 儲存執行緒池。
+     */
+    private final ExecutorService executor;
+
+    // -----物件變數-----
+    /**
+     * 儲存最少的迭代次數。
+     */
+    private int minIterations = 1;
+
+    // -----建構子-----
+    /**
+     * 建構子，使用所有的處理器核心與預設的參數。
+     */
+    public IsmctsSearch() {
+	this(Runtime.getRuntime().availableProcessors(), DEFAULT_NODE_CAPACITY, DEFAULT_EXPLORATION, System.nanoTime());
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param threads 傳入執行緒數量
+     * @param nodeCapacity 傳入每個執行緒的節點池大小
+     * @param exploration 傳入探索常數
+     * @param seed 傳入亂數種子
+     */
+    public IsmctsSearch(final int threads, final int nodeCapacity, final double exploration, final long seed) {
+	if (threads < 1) {
+	    throw new IllegalArgumentException("Invalid thread count: " + threads);
+	}
+	if (nodeCapacity < 1) {
+	    throw new IllegalArgumentException("Invalid node capacity: " + nodeCapacity);
+	}
+	final SplittableRandom master = new SplittableRandom(seed);
+	for (int i = 0; i < threads; ++i) {
+	    workers.add(new Worker<>(nodeCapacity, exploration, master.split()));
+	}
+	executor = Executors.newFixedThreadPool(threads, r -> {
+	    final Thread thread = new Thread(r, "ISMCTS");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+    }
+
+    // -----物件方法-----
+    /**
+     * 設定每個執行緒最少的迭代次數，即使時間用完也會完成。
+     *
+     * @param minIterations 傳入最少的迭代次數
+     */
+    public void setMinIterations(final int minIterations) {
+	this.minIterations = minIterations;
+    }
+
+    /**
+     * 搜尋最佳的動作。
+     *
+     * @param root 傳入目前的狀態，搜尋期間不可被修改
+     * @param budget 傳入時間預算(毫秒)
+     * @return 傳回最佳的動作
+     * @throws InterruptedException 等待時被中斷則拋出
+     */
+    public int search(final S root, final long budget) throws InterruptedException {
+	final long legal = root.legalMoves();
+	if (legal == CardSet.EMPTY) {
+	    throw new IllegalStateException("No legal move.");
+	}
+	if (CardSet.size(legal) == 1) {
+	    return CardSet.first(legal);
+	}
+	final int observer = root.getCurrentPlayer();
+	final long deadline = System.nanoTime() + budget * 1000000L;
+	final List<Future<?>> futures = new ArrayList<>(workers.size());
+	for (final Worker<S> worker : workers) {
+	    futures.add(executor.submit(() -> worker.search(root, observer, deadline, minIterations)));
+	}
+	final long[] totals = new long[GameState.MAX_MOVES];
+	for (int i = 0; i < futures.size(); ++i) {
+	    try {
+		futures.get(i).get();
+	    } catch (final ExecutionException e) {
+		throw new IllegalStateException("Search failed.", e.getCause());
+	    }
+	    workers.get(i).collect(totals);
+	}
+	int best = CardSet.first(legal);
+	for (int move = 0; move < GameState.MAX_MOVES; ++move) {
+	    if (CardSet.contains(legal, move) && totals[move] > totals[best]) {
+		best = move;
+	    }
+	}
+	return best;
+    }
+
+    /**
+     * 取得上一次搜尋所有執行緒的迭代次數總和。
+     *
+     * @return 傳回迭代次數
+     */
+    public long getLastIterations() {
+	long total = 0;
+	for (final Worker<S> worker : workers) {
+	    total += worker.iterations;
+	}
+	return total;
+    }
+
+    /**
+     * 關閉執行緒池。
+     */
+    @Override
+    public void close() {
+	executor.shutdownNow();
+    }
+}
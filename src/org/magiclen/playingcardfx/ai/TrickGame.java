@@ -0,0 +1,336 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.ai;
+
+import java.util.SplittableRandom;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.CardSet;
+
+/**
+ * <p>
+ * 簡單的吃墩遊戲。
+ * </p>
+ * <p>
+ * 52張牌平均發給每位玩家，必須跟出首引的花色，沒有該花色時才可以出其他牌。有王牌花色時，最大的王牌贏得這一墩；否則首引花色中最大的牌贏得這一墩。A最大。報酬為吃到的墩數佔總墩數的比例，可作為黑桃王等遊戲的基礎。
+ * </p>
+ * <p>
+ * 手牌以CardSet表示，動作為牌的索引值。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class TrickGame implements GameState<TrickGame> {
+
+    // -----類別常數-----
+    /**
+     * 每張牌在同花色中的大小(A最大)。
+     */
+    private static final int[] STRENGTH = new int[CardCode.COUNT];
+
+    static {
+	for (int i = 0; i < CardCode.SMALL_GHOST; ++i) {
+	    final int face = CardCode.faceOf(i);
+	    STRENGTH[i] = face == 1 ? 14 : face;
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存玩家數量。
+     */
+    private final int players;
+    /**
+     * 儲存王牌花色值(1~4)，0表示沒有王牌。
+     */
+    private final int trump;
+    /**
+     * 儲存每位玩家的手牌。
+     */
+    private final long[] hands;
+    /**
+     * 儲存每位玩家吃到的墩數。
+     */
+    private final int[] tricks;
+
+    // -----物件變數-----
+    /**
+     * 儲存目前要行動的玩家。
+     */
+    private int current;
+    /**
+     * 儲存這一墩已經出的張數。
+     */
+    private int played;
+    /**
+     * 儲存這一墩首引的花色值。
+     */
+    private int ledSuit;
+    /**
+     * 儲存這一墩目前最大的牌。
+     */
+    private int winningCard;
+    /**
+     * 儲存這一墩目前最大的牌的玩家。
+     */
+    private int winningPlayer;
+    /**
+     * 儲存已經打出的牌。
+     */
+    private long playedCards;
+    /**
+     * 儲存總墩數。
+     */
+    private int totalTricks;
+
+    // -----建構子-----
+    /**
+     * 建構子，建立尚未發牌的遊戲。
+     *
+     * @param players 傳入玩家數量(2~4)
+     * @param trump 傳入王牌花色值(1~4)，0表示沒有王牌
+     */
+    public TrickGame(final int players, final int trump) {
+	if (players < 2 || players > 4) {
+	    throw new IllegalArgumentException("Invalid player count: " + players);
+	}
+	if (trump < 0 || trump > 4) {
+	    throw new IllegalArgumentException("Invalid trump: " + trump);
+	}
+	this.players = players;
+	this.trump = trump;
+	hands = new long[players];
+	tricks = new int[players];
+    }
+
+    // -----物件方法-----
+    /**
+     * 隨機發牌，每位玩家拿到相同張數，剩下的牌不使用。
+     *
+     * @param random 傳入亂數產生器
+     * @param leader 傳入第一位出牌的玩家
+     */
+    public void deal(final SplittableRandom random, final int leader) {
+	long deck = CardSet.STANDARD_DECK;
+	final int perPlayer = CardCode.SMALL_GHOST / players;
+	for (int p = 0; p < players; ++p) {
+	    long hand = CardSet.EMPTY;
+	    for (int i = 0; i < perPlayer; ++i) {
+		final int card = CardSet.random(deck, random);
+		deck = CardSet.remove(deck, card);
+		hand = CardSet.add(hand, card);
+	    }
+	    hands[p] = hand;
+	    tricks[p] = 0;
+	}
+	current = leader;
+	played = 0;
+	playedCards = CardSet.EMPTY;
+	totalTricks = perPlayer;
+    }
+
+    /**
+     * 設定某位玩家的手牌。
+     *
+     * @param player 傳入玩家編號
+     * @param hand 傳入手牌
+     */
+    public void setHand(final int player, final long hand) {
+	hands[player] = hand;
+	totalTricks = Math.max(totalTricks, CardSet.size(hand));
+    }
+
+    /**
+     * 取得某位玩家的手牌。
+     *
+     * @param player 傳入玩家編號
+     * @return 傳回手牌
+     */
+    public long getHand(final int player) {
+	return hands[player];
+    }
+
+    /**
+     * 取得某位玩家吃到的墩數。
+     *
+     * @param player 傳入玩家編號
+     * @return 傳回墩數
+     */
+    public int getTricks(final int player) {
+	return tricks[player];
+    }
+
+    /**
+     * 取得玩家數量。
+     *
+     * @return 傳回玩家數量
+     */
+    @Override
+    public int getPlayerCount() {
+	return players;
+    }
+
+    /**
+     * 取得目前要行動的玩家。
+     *
+     * @return 傳回玩家編號
+     */
+    @Override
+    public int getCurrentPlayer() {
+	return current;
+    }
+
+    /**
+     * 判斷遊戲是否已經結束，所有手牌都出完時結束。
+     *
+     * @return 傳回遊戲是否已經結束
+     */
+    @Override
+    public boolean isTerminal() {
+	return hands[current] == CardSet.EMPTY;
+    }
+
+    /**
+     * 取得目前玩家的合法動作。有首引花色的牌時必須跟出。
+     *
+     * @return 傳回可以出的牌的集合
+     */
+    @Override
+    public long legalMoves() {
+	final long hand = hands[current];
+	if (played > 0) {
+	    final long follow = hand & CardSet.suitMask(ledSuit);
+	    if (follow != CardSet.EMPTY) {
+		return follow;
+	    }
+	}
+	return hand;
+    }
+
+    /**
+     * 出一張牌。一墩結束時，由贏家首引下一墩。
+     *
+     * @param move 傳入牌的索引值
+     */
+    @Override
+    public void apply(final int move) {
+	hands[current] = CardSet.remove(hands[current], move);
+	playedCards = CardSet.add(playedCards, move);
+	final int suit = CardCode.suitOrdinalOf(move);
+	if (played == 0) {
+	    ledSuit = suit;
+	    winningCard = move;
+	    winningPlayer = current;
+	} else if (beats(move, winningCard)) {
+	    winningCard = move;
+	    winningPlayer = current;
+	}
+	if (++played == players) {
+	    ++tricks[winningPlayer];
+	    current = winningPlayer;
+	    played = 0;
+	} else {
+	    current = (current + 1) % players;
+	}
+    }
+
+    /**
+     * 判斷一張牌是否比目前最大的牌大。
+     *
+     * @param card 傳入牌
+     * @param best 傳入目前最大的牌
+     * @return 傳回是否比較大
+     */
+    private boolean beats(final int card, final int best) {
+	final int suit = CardCode.suitOrdinalOf(card);
+	final int bestSuit = CardCode.suitOrdinalOf(best);
+	if (suit == bestSuit) {
+	    return STRENGTH[card] > STRENGTH[best];
+	}
+	return suit == trump;
+    }
+
+    /**
+     * 取得某個玩家的報酬。
+     *
+     * @param player 傳入玩家編號
+     * @return 傳回吃到的墩數佔總墩數的比例
+     */
+    @Override
+    public double getReward(final int player) {
+	return totalTricks == 0 ? 0 : (double) tricks[player] / totalTricks;
+    }
+
+    /**
+     * 將其他玩家的手牌隨機重新分配，每位玩家的張數不變。不考慮從出牌過程推論出的缺門資訊。
+     *
+     * @param observer 傳入觀察者的玩家編號
+     * @param random 傳入亂數產生器
+     */
+    @Override
+    public void determinize(final int observer, final SplittableRandom random) {
+	long unseen = CardSet.EMPTY;
+	for (int p = 0; p < players; ++p) {
+	    if (p != observer) {
+		unseen |= hands[p];
+	    }
+	}
+	for (int p = 0; p < players; ++p) {
+	    if (p == observer) {
+		continue;
+	    }
+	    final int size = CardSet.size(hands[p]);
+	    long hand = CardSet.EMPTY;
+	    for (int i = 0; i < size; ++i) {
+		final int card = CardSet.random(unseen, random);
+		unseen = CardSet.remove(unseen, card);
+		hand = CardSet.add(hand, card);
+	    }
+	    hands[p] = hand;
+	}
+    }
+
+    /**
+     * 複製另一個狀態的內容。
+     *
+     * @param other 傳入另一個狀態
+     */
+    @Override
+    public void copyFrom(final TrickGame other) {
+	System.arraycopy(other.hands, 0, hands, 0, players);
+	System.arraycopy(other.tricks, 0, tricks, 0, players);
+	current = other.current;
+	played = other.played;
+	ledSuit = other.ledSuit;
+	winningCard = other.winningCard;
+	winningPlayer = other.winningPlayer;
+	playedCards = other.playedCards;
+	totalTricks = other.totalTricks;
+    }
+
+    /**
+     * 建立狀態的複本。
+     *
+     * @return 傳回狀態的複本
+     */
+    @Override
+    public TrickGame copy() {
+	final TrickGame game = new TrickGame(players, trump);
+	game.copyFrom(this);
+	return game;
+    }
+}
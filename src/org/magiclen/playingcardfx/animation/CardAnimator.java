@@ -0,0 +1,465 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.animation;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import javafx.animation.AnimationTimer;
+import javafx.scene.CacheHint;
+import javafx.scene.Node;
+import org.magiclen.playingcardfx.playingcard.PlayingCard;
+
+/**
+ * <p>
+ * 牌桌動畫引擎。
+ * </p>
+ * <p>
+ * 所有的移動與翻牌動畫都由同一個AnimationTimer驅動，動畫的狀態以基本型態的陣列儲存，每一個畫格只會更新節點的平移與縮放，不會建立任何物件。
+ * </p>
+ * <p>
+ * 翻牌時先將牌的寬度縮到0，在中間點呼叫PlayingCard的flip()方法切換已保存的正反面圖形，再把寬度放大回來，因此不需要重繪畫布。動畫期間會開啟節點的快取，讓節點以點陣圖的方式被移動與縮放。
+ * </p>
+ * <p>
+ * 此類別必須在JavaFX應用程式執行緒中使用。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class CardAnimator {
+
+    // -----類別常數-----
+    /**
+     * 動畫類型：移動。
+     */
+    private static final int MOVE = 0;
+    /**
+     * 動畫類型：翻牌。
+     */
+    private static final int FLIP = 1;
+    /**
+     * 預設的容量。
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+    /**
+     * 每個移動動畫使用的數值數量(起點X、起點Y、終點X、終點Y)。
+     */
+    private static final int STRIDE = 4;
+
+    // -----類別方法-----
+    /**
+     * 緩動函數，開始與結束時較慢。
+     *
+     * @param t 傳入進度(0~1)
+     * @return 傳回緩動後的進度
+     */
+    private static double ease(final double t) {
+	return t * t * (3 - 2 * t);
+    }
+
+    // -----物件常數-----
+    /**
+     * 驅動所有動畫的計時器。
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+	@Override
+	public void handle(final long now) {
+	    update(now);
+	}
+    };
+    /**
+     * 儲存每個節點的動畫位置，以動畫類型為陣列索引，沒有該類型的動畫時為-1。每個節點的每種類型最多只有一個動畫。
+     */
+    private final IdentityHashMap<Node, int[]> slots = new IdentityHashMap<>();
+
+    // -----物件變數-----
+    /**
+     * 儲存執行中的動畫數量。
+     */
+    private int count;
+    /**
+     * 儲存每個動畫的節點。
+     */
+    private Node[] nodes = new Node[DEFAULT_CAPACITY];
+    /**
+     * 儲存每個動畫的類型。
+     */
+    private int[] kinds = new int[DEFAULT_CAPACITY];
+    /**
+     * 儲存每個動畫的開始時間(奈秒)。
+     */
+    private long[] starts = new long[DEFAULT_CAPACITY];
+    /**
+     * 儲存每個動畫的持續時間(奈秒)。
+     */
+    private long[] durations = new long[DEFAULT_CAPACITY];
+    /**
+     * 儲存翻牌動畫是否已經過了中間點。
+     */
+    private boolean[] halfway = new boolean[DEFAULT_CAPACITY];
+    /**
+     * 儲存動畫開始前節點是否開啟快取，同一個節點的動畫共用同一組值。
+     */
+    private boolean[] savedCaches = new boolean[DEFAULT_CAPACITY];
+    /**
+     * 儲存動畫開始前節點的快取提示，同一個節點的動畫共用同一組值。
+     */
+    private CacheHint[] savedHints = new CacheHint[DEFAULT_CAPACITY];
+    /**
+     * 儲存移動動畫的座標，每個動畫佔STRIDE個數值。
+     */
+    private double[] values = new double[DEFAULT_CAPACITY * STRIDE];
+    /**
+     * 儲存所有動畫結束時要執行的工作。
+     */
+    private Runnable onFinished;
+    /**
+     * 儲存計時器是否正在執行。
+     */
+    private boolean running;
+
+    // -----物件方法-----
+    /**
+     * 設定所有動畫結束時要執行的工作。
+     *
+     * @param onFinished 傳入要執行的工作
+     */
+    public void setOnFinished(final Runnable onFinished) {
+	this.onFinished = onFinished;
+    }
+
+    /**
+     * 取得執行中(包括尚未開始)的動畫數量。
+     *
+     * @return 傳回動畫數量
+     */
+    public int getRunningCount() {
+	return count;
+    }
+
+    /**
+     * 將節點從目前的平移位置移動到新的平移位置。
+     *
+     * @param node 傳入節點
+     * @param toX 傳入終點的X平移量
+     * @param toY 傳入終點的Y平移量
+     * @param delay 傳入延遲時間(毫秒)
+     * @param duration 傳入持續時間(毫秒)
+     */
+    public void move(final Node node, final double toX, final double toY, final double delay, final double duration) {
+	move(node, node.getTranslateX(), node.getTranslateY(), toX, toY, delay, duration);
+    }
+
+    /**
+     * 將節點從起點平移位置移動到終點平移位置。若節點已經有移動動畫，會以新的動畫取代。
+     *
+     * @param node 傳入節點
+     * @param fromX 傳入起點的X平移量
+     * @param fromY 傳入起點的Y平移量
+     * @param toX 傳入終點的X平移量
+     * @param toY 傳入終點的Y平移量
+     * @param delay 傳入延遲時間(毫秒)
+     * @param duration 傳入持續時間(毫秒)
+     */
+    public void move(final Node node, final double fromX, final double fromY, final double toX, final double toY, final double delay, final double duration) {
+	final int i = add(node, MOVE, delay, duration);
+	final int v = i * STRIDE;
+	values[v] = fromX;
+	values[v + 1] = fromY;
+	values[v + 2] = toX;
+	values[v + 3] = toY;
+	node.setTranslateX(fromX);
+	node.setTranslateY(fromY);
+    }
+
+    /**
+     * 翻牌。如果這張牌正在翻牌，會讓翻牌動畫反轉回原本的那一面。
+     *
+     * @param card 傳入撲克牌
+     * @param delay 傳入延遲時間(毫秒)
+     * @param duration 傳入持續時間(毫秒)
+     */
+    public void flip(final PlayingCard card, final double delay, final double duration) {
+	final int i = indexOfFlip(card);
+	flipTo(card, i >= 0 ? halfway[i] != card.isBack() : !card.isBack(), delay, duration);
+    }
+
+    /**
+     * <p>
+     * 將牌翻到指定的那一面。
+     * </p>
+     * <p>
+     * 如果這張牌正在翻牌，且翻牌動畫結束時就是指定的那一面，不會做任何事；若結束時不是指定的那一面，會從目前的寬度開始反轉動畫。同一張牌同時只會有一個翻牌動畫。
+     * </p>
+     *
+     * @param card 傳入撲克牌
+     * @param back 傳入是否要翻到背面
+     * @param delay 傳入延遲時間(毫秒)，只有在需要開始新的翻牌動畫時使用
+     * @param duration 傳入持續時間(毫秒)，只有在需要開始新的翻牌動畫時使用
+     */
+    public void flipTo(final PlayingCard card, final boolean back, final double delay, final double duration) {
+	final int i = indexOfFlip(card);
+	if (i < 0) {
+	    if (card.isBack() != back) {
+		add(card, FLIP, delay, duration);
+	    }
+	    return;
+	}
+	//過了中間點後牌已經翻過，結束時就是目前的那一面
+	if ((halfway[i] ? card.isBack() : !card.isBack()) == back) {
+	    return;
+	}
+	final long elapsed = System.nanoTime() - starts[i];
+	if (elapsed <= 0) {
+	    //動畫還沒開始，直接取消
+	    remove(i);
+	    stopIfIdle();
+	    return;
+	}
+	//讓寬度從目前的值反向變化，過了中間點的動畫會再翻一次，還沒過中間點的則不必再翻
+	final long reversed = durations[i] - Math.min(elapsed, durations[i]);
+	starts[i] = System.nanoTime() - reversed;
+	halfway[i] = !halfway[i];
+    }
+
+    /**
+     * <p>
+     * 發牌。
+     * </p>
+     * <p>
+     * 所有牌從同一個起點出發，依序間隔一段時間後移動到各自的終點。
+     * </p>
+     *
+     * @param cards 傳入撲克牌陣列
+     * @param fromX 傳入起點的X平移量
+     * @param fromY 傳入起點的Y平移量
+     * @param targets 傳入每張牌的終點平移量，依序為X、Y交錯排列
+     * @param interval 傳入每張牌之間的間隔時間(毫秒)
+     * @param duration 傳入每張牌的持續時間(毫秒)
+     */
+    public void deal(final PlayingCard[] cards, final double fromX, final double fromY, final double[] targets, final double interval, final double duration) {
+	ensureCapacity(count + cards.length);
+	for (int i = 0; i < cards.length; ++i) {
+	    move(cards[i], fromX, fromY, targets[i * 2], targets[i * 2 + 1], interval * i, duration);
+	}
+    }
+
+    /**
+     * 立即完成某個節點所有的動畫。
+     *
+     * @param node 傳入節點
+     */
+    public void finish(final Node node) {
+	final int[] slot = slots.get(node);
+	if (slot == null) {
+	    return;
+	}
+	//移除動畫時可能會搬移同一個節點其他動畫的位置，因此每次都要重新從slot讀取
+	for (int kind = 0; kind < slot.length; ++kind) {
+	    final int i = slot[kind];
+	    if (i >= 0) {
+		complete(i);
+		remove(i);
+	    }
+	}
+	stopIfIdle();
+    }
+
+    /**
+     * 立即完成所有的動畫。
+     */
+    public void finishAll() {
+	for (int i = count - 1; i >= 0; --i) {
+	    complete(i);
+	    remove(i);
+	}
+	stopIfIdle();
+    }
+
+    /**
+     * 加入一個動畫。若節點已經有同類型的動畫，會重新使用該動畫的位置。
+     *
+     * @param node 傳入節點
+     * @param kind 傳入動畫類型
+     * @param delay 傳入延遲時間(毫秒)
+     * @param duration 傳入持續時間(毫秒)
+     * @return 傳回動畫的位置
+     */
+    private int add(final Node node, final int kind, final double delay, final double duration) {
+	int[] slot = slots.get(node);
+	if (slot == null) {
+	    slot = new int[]{-1, -1};
+	    slots.put(node, slot);
+	}
+	int i = slot[kind];
+	if (i < 0) {
+	    ensureCapacity(count + 1);
+	    i = count++;
+	    nodes[i] = node;
+	    kinds[i] = kind;
+	    slot[kind] = i;
+	    final int other = slot[kind ^ 1];
+	    if (other >= 0) {
+		//節點已經有其他動畫，節點目前的快取設定是動畫設定的，沿用先前保存的值
+		savedCaches[i] = savedCaches[other];
+		savedHints[i] = savedHints[other];
+	    } else {
+		savedCaches[i] = node.isCache();
+		savedHints[i] = node.getCacheHint();
+		node.setCache(true);
+		node.setCacheHint(CacheHint.SPEED);
+	    }
+	}
+	starts[i] = System.nanoTime() + (long) (delay * 1e6);
+	durations[i] = Math.max(1, (long) (duration * 1e6));
+	halfway[i] = false;
+	if (!running) {
+	    running = true;
+	    timer.start();
+	}
+	return i;
+    }
+
+    /**
+     * 確保陣列有足夠的容量。
+     *
+     * @param capacity 傳入需要的容量
+     */
+    private void ensureCapacity(final int capacity) {
+	if (capacity <= nodes.length) {
+	    return;
+	}
+	final int newCapacity = Math.max(capacity, nodes.length << 1);
+	nodes = Arrays.copyOf(nodes, newCapacity);
+	kinds = Arrays.copyOf(kinds, newCapacity);
+	starts = Arrays.copyOf(starts, newCapacity);
+	durations = Arrays.copyOf(durations, newCapacity);
+	halfway = Arrays.copyOf(halfway, newCapacity);
+	savedCaches = Arrays.copyOf(savedCaches, newCapacity);
+	savedHints = Arrays.copyOf(savedHints, newCapacity);
+	values = Arrays.copyOf(values, newCapacity * STRIDE);
+    }
+
+    /**
+     * 更新所有動畫，每個畫格呼叫一次。
+     *
+     * @param now 傳入目前的時間(奈秒)
+     */
+    private void update(final long now) {
+	for (int i = count - 1; i >= 0; --i) {
+	    final long elapsed = now - starts[i];
+	    if (elapsed < 0) {
+		continue;
+	    }
+	    if (elapsed >= durations[i]) {
+		complete(i);
+		remove(i);
+		continue;
+	    }
+	    final double t = (double) elapsed / durations[i];
+	    final Node node = nodes[i];
+	    if (kinds[i] == MOVE) {
+		final int v = i * STRIDE;
+		final double e = ease(t);
+		node.setTranslateX(values[v] + (values[v + 2] - values[v]) * e);
+		node.setTranslateY(values[v + 1] + (values[v + 3] - values[v + 1]) * e);
+	    } else {
+		if (t >= 0.5 && !halfway[i]) {
+		    halfway[i] = true;
+		    ((PlayingCard) node).flip();
+		}
+		node.setScaleX(Math.abs(1 - 2 * t));
+	    }
+	}
+	stopIfIdle();
+    }
+
+    /**
+     * 將動畫設定為結束時的狀態。
+     *
+     * @param i 傳入動畫的位置
+     */
+    private void complete(final int i) {
+	final Node node = nodes[i];
+	if (kinds[i] == MOVE) {
+	    final int v = i * STRIDE;
+	    node.setTranslateX(values[v + 2]);
+	    node.setTranslateY(values[v + 3]);
+	} else {
+	    if (!halfway[i]) {
+		halfway[i] = true;
+		((PlayingCard) node).flip();
+	    }
+	    node.setScaleX(1);
+	}
+    }
+
+    /**
+     * 移除動畫，將最後一個動畫搬到被移除的位置。
+     *
+     * @param i 傳入動畫的位置
+     */
+    private void remove(final int i) {
+	final Node node = nodes[i];
+	final int[] slot = slots.get(node);
+	slot[kinds[i]] = -1;
+	if (slot[kinds[i] ^ 1] < 0) {
+	    //節點最後一個動畫結束，還原動畫開始前的快取設定
+	    slots.remove(node);
+	    node.setCache(savedCaches[i]);
+	    node.setCacheHint(savedHints[i]);
+	}
+	final int last = --count;
+	if (i != last) {
+	    nodes[i] = nodes[last];
+	    slots.get(nodes[last])[kinds[last]] = i;
+	    kinds[i] = kinds[last];
+	    starts[i] = starts[last];
+	    durations[i] = durations[last];
+	    halfway[i] = halfway[last];
+	    savedCaches[i] = savedCaches[last];
+	    savedHints[i] = savedHints[last];
+	    System.arraycopy(values, last * STRIDE, values, i * STRIDE, STRIDE);
+	}
+	nodes[last] = null;
+	savedHints[last] = null;
+    }
+
+    /**
+     * 找出節點的翻牌動畫。
+     *
+     * @param node 傳入節點
+     * @return 傳回動畫的位置，找不到時傳回-1
+     */
+    private int indexOfFlip(final Node node) {
+	final int[] slot = slots.get(node);
+	return slot == null ? -1 : slot[FLIP];
+    }
+
+    /**
+     * 沒有動畫時停止計時器，並執行結束時的工作。
+     */
+    private void stopIfIdle() {
+	if (count == 0 && running) {
+	    running = false;
+	    timer.stop();
+	    if (onFinished != null) {
+		onFinished.run();
+	    }
+	}
+    }
+}
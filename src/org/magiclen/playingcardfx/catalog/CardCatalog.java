@@ -0,0 +1,244 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.catalog;
+
+import java.util.Arrays;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.PlayingCard;
+
+/**
+ * <p>
+ * 撲克牌目錄。
+ * </p>
+ * <p>
+ * 以牌的索引值(參考CardCode)依序儲存大量的牌，例如多副牌混合的牌靴或是儲存的牌局，每筆資料只佔一個位元組，不需要建立PlayingCard物件。
+ * </p>
+ * <p>
+ * 牌的所有屬性(花色、牌值、顏色、人像、數字)都只取決於索引值，因此篩選條件可以事先轉換成CardSet的集合(參考CardFilter)，篩選時每筆資料只需要一次位元運算。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardCatalog {
+
+    // -----類別常數-----
+    /**
+     * 預設的容量。
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+    /**
+     * 每張牌的名稱，以牌的索引值為陣列索引。
+     */
+    private static final String[] NAMES = new String[CardCode.COUNT];
+
+    static {
+	for (int i = 0; i < CardCode.COUNT; ++i) {
+	    NAMES[i] = PlayingCard.toString(CardCode.suitOf(i), CardCode.faceOf(i));
+	}
+    }
+
+    // -----類別方法-----
+    /**
+     * 取得牌的名稱，與PlayingCard的toString()的結果相同。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回牌的名稱
+     */
+    public static String nameOf(final int index) {
+	return NAMES[index];
+    }
+
+    // -----物件變數-----
+    /**
+     * 儲存牌的索引值。
+     */
+    private byte[] cards;
+    /**
+     * 儲存牌的數量。
+     */
+    private int size;
+    /**
+     * 儲存修改的次數，讓CardCatalogView知道要重新篩選。
+     */
+    private int modCount;
+
+    // -----建構子-----
+    /**
+     * 建構子，建立空的目錄。
+     */
+    public CardCatalog() {
+	this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 建構子，建立空的目錄。
+     *
+     * @param capacity 傳入預計的牌的數量
+     */
+    public CardCatalog(final int capacity) {
+	cards = new byte[Math.max(1, capacity)];
+    }
+
+    // -----物件方法-----
+    /**
+     * 確保容量足夠。
+     *
+     * @param capacity 傳入需要的容量
+     */
+    private void ensureCapacity(final int capacity) {
+	if (capacity > cards.length) {
+	    cards = Arrays.copyOf(cards, Math.max(capacity, cards.length * 2));
+	}
+    }
+
+    /**
+     * 加入一張牌。
+     *
+     * @param index 傳入牌的索引值
+     */
+    public void add(final int index) {
+	if (!CardCode.isValid(index)) {
+	    throw new IllegalArgumentException("Invalid card index: " + index);
+	}
+	ensureCapacity(size + 1);
+	cards[size++] = (byte) index;
+	++modCount;
+    }
+
+    /**
+     * 加入多張牌。
+     *
+     * @param indexes 傳入牌的索引值陣列
+     */
+    public void addAll(final int[] indexes) {
+	for (final int index : indexes) {
+	    if (!CardCode.isValid(index)) {
+		throw new IllegalArgumentException("Invalid card index: " + index);
+	    }
+	}
+	ensureCapacity(size + indexes.length);
+	for (final int index : indexes) {
+	    cards[size++] = (byte) index;
+	}
+	++modCount;
+    }
+
+    /**
+     * 加入多副牌，每副牌依照索引值的順序加入。
+     *
+     * @param decks 傳入牌的副數
+     * @param ghost 傳入是否包含鬼牌
+     */
+    public void addDecks(final int decks, final boolean ghost) {
+	final int count = ghost ? CardCode.COUNT : CardCode.SMALL_GHOST;
+	ensureCapacity(size + decks * count);
+	for (int d = 0; d < decks; ++d) {
+	    for (int i = 0; i < count; ++i) {
+		cards[size++] = (byte) i;
+	    }
+	}
+	++modCount;
+    }
+
+    /**
+     * 清空目錄。
+     */
+    public void clear() {
+	size = 0;
+	++modCount;
+    }
+
+    /**
+     * 取得牌的數量。
+     *
+     * @return 傳回牌的數量
+     */
+    public int size() {
+	return size;
+    }
+
+    /**
+     * 取得某個位置的牌。
+     *
+     * @param position 傳入位置
+     * @return 傳回牌的索引值
+     */
+    public int get(final int position) {
+	if (position < 0 || position >= size) {
+	    throw new IndexOutOfBoundsException("Position: " + position + ", size: " + size);
+	}
+	return cards[position];
+    }
+
+    /**
+     * 找出符合篩選條件的位置。
+     *
+     * @param filter 傳入篩選條件(CardSet的集合)
+     * @param positions 傳入要篩選的位置，必須由小到大排列
+     * @param count 傳入要篩選的位置的數量
+     * @param result 傳入用來儲存結果的陣列，長度至少要是count，可以與positions相同
+     * @return 傳回符合的數量
+     */
+    int select(final long filter, final int[] positions, final int count, final int[] result) {
+	final byte[] cards = this.cards;
+	int n = 0;
+	for (int i = 0; i < count; ++i) {
+	    final int position = positions[i];
+	    result[n] = position;
+	    n += (int) (filter >>> cards[position]) & 1;
+	}
+	return n;
+    }
+
+    /**
+     * 找出所有符合篩選條件的位置。
+     *
+     * @param filter 傳入篩選條件(CardSet的集合)
+     * @param result 傳入用來儲存結果的陣列，長度至少要是size()
+     * @return 傳回符合的數量
+     */
+    int selectAll(final long filter, final int[] result) {
+	final byte[] cards = this.cards;
+	final int size = this.size;
+	int n = 0;
+	for (int i = 0; i < size; ++i) {
+	    result[n] = i;
+	    n += (int) (filter >>> cards[i]) & 1;
+	}
+	return n;
+    }
+
+    /**
+     * 取得修改的次數。
+     *
+     * @return 傳回修改的次數
+     */
+    int getModCount() {
+	return modCount;
+    }
+
+    /**
+     * 直接取得某個位置的牌，不檢查範圍。
+     *
+     * @param position 傳入位置
+     * @return 傳回牌的索引值
+     */
+    int cardAt(final int position) {
+	return cards[position];
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.catalog;
+
+import java.util.ArrayList;
+import javafx.collections.ObservableListBase;
+
+/**
+ * <p>
+ * 撲克牌目錄經過篩選後的清單，可以直接給ListView使用。
+ * </p>
+ * <p>
+ * 清單只儲存符合條件的位置與牌的索引值，項目的文字在需要顯示的時候才從牌的名稱表中取得，不會替每筆資料建立字串。
+ * </p>
+ * <p>
+ * 改變篩選條件時不會重建清單：若新的條件比較嚴格(符合的牌是原本的子集合)，只需要篩選目前的結果；否則才重新篩選整個目錄。接著比對新舊結果，只通知被移除與被加入的項目，ListView的捲動位置與選取狀態可以盡量保留。條件沒有改變時不做任何事。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class CardCatalogView extends ObservableListBase<String> {
+
+    // -----物件常數-----
+    /**
+     * 儲存目錄。
+     */
+    private final CardCatalog catalog;
+
+    // -----物件變數-----
+    /**
+     * 儲存符合條件的位置。
+     */
+    private int[] positions;
+    /**
+     * 儲存符合條件的位置的數量。
+     */
+    private int size;
+    /**
+     * 儲存上一次的結果，與positions輪流使用。
+     */
+    private int[] spare;
+    /**
+     * 儲存符合條件的牌的索引值，與positions一一對應。目錄被修改後仍然可以用來取得被移除的項目。
+     */
+    private int[] cards;
+    /**
+     * 儲存上一次的結果的牌，與cards輪流使用。
+     */
+    private int[] spareCards;
+    /**
+     * 儲存篩選條件。
+     */
+    private long filter = CardFilter.ALL;
+    /**
+     * 儲存篩選時目錄的修改次數。
+     */
+    private int modCount;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param catalog 傳入目錄
+     */
+    public CardCatalogView(final CardCatalog catalog) {
+	this.catalog = catalog;
+	positions = new int[catalog.size()];
+	spare = new int[catalog.size()];
+	cards = new int[catalog.size()];
+	spareCards = new int[catalog.size()];
+	size = catalog.selectAll(filter, positions);
+	for (int i = 0; i < size; ++i) {
+	    cards[i] = catalog.cardAt(positions[i]);
+	}
+	modCount = catalog.getModCount();
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得篩選條件。
+     *
+     * @return 傳回篩選條件(CardSet的集合)
+     */
+    public long getFilter() {
+	return filter;
+    }
+
+    /**
+     * 設定篩選條件。
+     *
+     * @param filter 傳入篩選條件(CardSet的集合)
+     */
+    public void setFilter(final long filter) {
+	if (filter == this.filter && modCount == catalog.getModCount()) {
+	    return;
+	}
+	final boolean narrower = (filter & ~this.filter) == 0 && modCount == catalog.getModCount();
+	this.filter = filter;
+	update(narrower);
+    }
+
+    /**
+     * 設定搜尋文字，參考CardFilter的parse方法。
+     *
+     * @param query 傳入搜尋文字
+     */
+    public void setQuery(final String query) {
+	setFilter(CardFilter.parse(query));
+    }
+
+    /**
+     * 目錄改變之後，重新篩選整個目錄。
+     */
+    public void refresh() {
+	update(false);
+    }
+
+    /**
+     * 重新篩選，並通知改變的項目。
+     *
+     * @param narrower 傳入是否只需要篩選目前的結果
+     */
+    private void update(final boolean narrower) {
+	final int[] oldPositions = positions;
+	final int[] oldCards = cards;
+	final int oldSize = size;
+	final int capacity = narrower ? oldSize : catalog.size();
+	if (spare.length < capacity) {
+	    spare = new int[capacity];
+	}
+	if (spareCards.length < capacity) {
+	    spareCards = new int[capacity];
+	}
+	final int[] newPositions = spare;
+	final int[] newCards = spareCards;
+	final int newSize = narrower ? catalog.select(filter, oldPositions, oldSize, newPositions) : catalog.selectAll(filter, newPositions);
+	for (int i = 0; i < newSize; ++i) {
+	    newCards[i] = catalog.cardAt(newPositions[i]);
+	}
+	final boolean changedCatalog = modCount != catalog.getModCount();
+	modCount = catalog.getModCount();
+
+	positions = newPositions;
+	cards = newCards;
+	size = newSize;
+	spare = oldPositions;
+	spareCards = oldCards;
+
+	beginChange();
+	if (changedCatalog) {
+	    //目錄被修改過，舊的位置已經無法對應到原本的牌，只能整個取代，被移除的項目從上一次的結果的牌取得
+	    final ArrayList<String> removed = new ArrayList<>(oldSize);
+	    for (int i = 0; i < oldSize; ++i) {
+		removed.add(CardCatalog.nameOf(oldCards[i]));
+	    }
+	    nextReplace(0, newSize, removed);
+	} else {
+	    //新舊結果都是由小到大排列，同時走訪即可找出被移除與被加入的項目
+	    int i = 0, j = 0, p = 0;
+	    while (i < oldSize || j < newSize) {
+		if (i < oldSize && j < newSize && oldPositions[i] == newPositions[j]) {
+		    ++i;
+		    ++j;
+		    ++p;
+		} else if (j >= newSize || (i < oldSize && oldPositions[i] < newPositions[j])) {
+		    //連續被移除的項目一次通知
+		    final ArrayList<String> removed = new ArrayList<>();
+		    do {
+			removed.add(CardCatalog.nameOf(oldCards[i++]));
+		    } while (i < oldSize && (j >= newSize || oldPositions[i] < newPositions[j]));
+		    nextRemove(p, removed);
+		} else {
+		    //連續被加入的項目一次通知
+		    final int from = p;
+		    do {
+			++j;
+			++p;
+		    } while (j < newSize && (i >= oldSize || newPositions[j] < oldPositions[i]));
+		    nextAdd(from, p);
+		}
+	    }
+	}
+	endChange();
+    }
+
+    /**
+     * 取得清單中某個項目在目錄中的位置。
+     *
+     * @param index 傳入項目在清單中的索引
+     * @return 傳回在目錄中的位置
+     */
+    public int getPosition(final int index) {
+	if (index < 0 || index >= size) {
+	    throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+	}
+	return positions[index];
+    }
+
+    /**
+     * 取得清單中某個項目的牌。
+     *
+     * @param index 傳入項目在清單中的索引
+     * @return 傳回牌的索引值
+     */
+    public int getCard(final int index) {
+	if (index < 0 || index >= size) {
+	    throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+	}
+	return cards[index];
+    }
+
+    /**
+     * 找出目錄中某個位置在清單中的索引。
+     *
+     * @param position 傳入在目錄中的位置
+     * @return 傳回在清單中的索引，若不符合篩選條件，傳回-1
+     */
+    public int indexOfPosition(final int position) {
+	int low = 0, high = size - 1;
+	while (low <= high) {
+	    final int mid = (low + high) >>> 1;
+	    final int value = positions[mid];
+	    if (value < position) {
+		low = mid + 1;
+	    } else if (value > position) {
+		high = mid - 1;
+	    } else {
+		return mid;
+	    }
+	}
+	return -1;
+    }
+
+    /**
+     * 取得清單中某個項目的文字。
+     *
+     * @param index 傳入項目在清單中的索引
+     * @return 傳回牌的名稱
+     */
+    @Override
+    public String get(final int index) {
+	return CardCatalog.nameOf(getCard(index));
+    }
+
+    /**
+     * 取得清單的項目數量。
+     *
+     * @return 傳回符合條件的牌的數量
+     */
+    @Override
+    public int size() {
+	return size;
+    }
+}
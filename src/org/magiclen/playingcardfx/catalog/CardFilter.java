@@ -0,0 +1,181 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.catalog;
+
+import java.util.Locale;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.CardSet;
+import org.magiclen.playingcardfx.playingcard.PlayingCard.Suit;
+
+/**
+ * <p>
+ * 撲克牌篩選條件工具類別。
+ * </p>
+ * <p>
+ * 篩選條件以CardSet的集合表示，包含在集合中的牌就是符合條件的牌。條件之間可以直接用位元運算組合，例如紅色的人像為RED &amp; COURT。
+ * </p>
+ * <p>
+ * 也可以用parse方法將搜尋文字轉換成篩選條件，以空白分隔的每個關鍵字都必須符合，關鍵字前加上「-」表示排除。關鍵字可以是花色(黑桃、♠、spade)、牌值(A、10、K)、牌名(黑桃A)或是屬性(紅色、黑色、人像、數字，以及對應的英文)。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardFilter {
+
+    // -----類別常數-----
+    /**
+     * 不篩選，所有的牌都符合。
+     */
+    public static final long ALL = CardSet.FULL_DECK;
+    /**
+     * 紅色的牌(紅心和方塊)。
+     */
+    public static final long RED = CardSet.suitMask(Suit.HEART) | CardSet.suitMask(Suit.DIAMOND);
+    /**
+     * 黑色的牌(黑桃和梅花)。
+     */
+    public static final long BLACK = CardSet.suitMask(Suit.SPADE) | CardSet.suitMask(Suit.CLUB);
+    /**
+     * 人像(J、Q、K)。
+     */
+    public static final long COURT = face(11) | face(12) | face(13);
+    /**
+     * 數字牌(2~10)。
+     */
+    public static final long NUMBER;
+    /**
+     * 鬼牌。
+     */
+    public static final long GHOST = CardSet.suitMask(Suit.GHOST);
+    /**
+     * 每個花色的英文名稱，以花色值為索引。
+     */
+    private static final String[] SUIT_NAMES = {"joker", "spade", "heart", "club", "diamond"};
+    /**
+     * 每個花色的圖形文字，以花色值為索引。
+     */
+    private static final String[] SUIT_IMAGES = {"♨", "♠", "♥", "♣", "♦"};
+    /**
+     * 每張牌可以被搜尋的詞，以牌的索引值為陣列索引，都是小寫。
+     */
+    private static final String[][] TERMS = new String[CardCode.COUNT][];
+
+    static {
+	long number = CardSet.EMPTY;
+	for (int face = 2; face <= 10; ++face) {
+	    number |= face(face);
+	}
+	NUMBER = number;
+
+	for (int i = 0; i < CardCode.COUNT; ++i) {
+	    final int ordinal = CardCode.suitOrdinalOf(i);
+	    final String name = CardCatalog.nameOf(i);
+	    if (ordinal == 0) {
+		TERMS[i] = new String[]{name, i == CardCode.SMALL_GHOST ? "小鬼" : "大鬼", SUIT_IMAGES[0], SUIT_NAMES[0], "ghost"};
+		continue;
+	    }
+	    final String face = name.substring(name.length() - (CardCode.faceOf(i) == 10 ? 2 : 1)).toLowerCase(Locale.ROOT);
+	    final long mask = 1L << i;
+	    final String color = (RED & mask) != 0 ? "紅色" : "黑色";
+	    final String colorName = (RED & mask) != 0 ? "red" : "black";
+	    final String kind = (COURT & mask) != 0 ? "人像" : (NUMBER & mask) != 0 ? "數字" : "";
+	    final String kindName = (COURT & mask) != 0 ? "court" : (NUMBER & mask) != 0 ? "number" : "";
+	    TERMS[i] = new String[]{name.toLowerCase(Locale.ROOT), name.substring(0, name.length() - face.length()), SUIT_IMAGES[ordinal], SUIT_NAMES[ordinal], face, color, colorName, kind, kindName};
+	}
+    }
+
+    // -----類別方法-----
+    /**
+     * 取得某個花色的篩選條件。
+     *
+     * @param suit 傳入花色
+     * @return 傳回篩選條件
+     */
+    public static long suit(final Suit suit) {
+	return CardSet.suitMask(suit);
+    }
+
+    /**
+     * 取得某個牌值的篩選條件，不包含鬼牌。
+     *
+     * @param face 傳入牌值(1~13)
+     * @return 傳回篩選條件
+     */
+    public static long face(final int face) {
+	long set = CardSet.EMPTY;
+	for (int ordinal = 1; ordinal <= 4; ++ordinal) {
+	    set |= 1L << ((ordinal - 1) * CardCode.FACE_COUNT + face - 1);
+	}
+	return set;
+    }
+
+    /**
+     * 將搜尋文字轉換成篩選條件。
+     *
+     * @param query 傳入搜尋文字，空白時所有的牌都符合
+     * @return 傳回篩選條件
+     */
+    public static long parse(final String query) {
+	long filter = ALL;
+	if (query == null) {
+	    return filter;
+	}
+	for (final String token : query.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+	    if (token.isEmpty()) {
+		continue;
+	    }
+	    if (token.charAt(0) == '-') {
+		if (token.length() > 1) {
+		    filter &= ~match(token.substring(1));
+		}
+	    } else {
+		filter &= match(token);
+	    }
+	}
+	return filter;
+    }
+
+    /**
+     * 找出符合某個關鍵字的牌。
+     *
+     * @param token 傳入小寫的關鍵字
+     * @return 傳回符合的牌的集合
+     */
+    private static long match(final String token) {
+	//只有一個英數字元時必須完全相同，避免「1」符合「10」或「j」符合「joker」
+	final boolean prefix = token.length() > 1 || token.charAt(0) > 0x7F;
+	long set = CardSet.EMPTY;
+	for (int i = 0; i < CardCode.COUNT; ++i) {
+	    for (final String term : TERMS[i]) {
+		if (prefix ? term.startsWith(token) : term.equals(token)) {
+		    set |= 1L << i;
+		    break;
+		}
+	    }
+	}
+	return set;
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private CardFilter() {
+
+    }
+}
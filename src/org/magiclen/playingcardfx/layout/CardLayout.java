@@ -0,0 +1,515 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.layout;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * 牌桌排版引擎。
+ * </p>
+ * <p>
+ * 牌桌由多疊牌(pile)組成，每一疊牌有自己的原點與排列方式(PileLayout)。每張牌以整數編號表示，座標、旋轉角度與所在的疊都以基本型態的陣列儲存。
+ * </p>
+ * <p>
+ * 新增、移除、移動牌或改變正反面時，只會把受影響的疊標記為需要重新排版；呼叫layout()時只重新計算這些疊，並記錄位置真的有改變的牌。因此在有400張牌的牌桌上移動一張牌，只需要重新計算來源與目的地兩疊牌。
+ * </p>
+ * <p>
+ * 此類別不依賴JavaFX，也不是執行緒安全的。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class CardLayout {
+
+    // -----類別常數-----
+    /**
+     * 預設的容量。
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+    /**
+     * 不在任何一疊中時使用的值。
+     */
+    public static final int NONE = -1;
+
+    // -----內部類別-----
+    /**
+     * 一疊牌。
+     */
+    private static final class Pile {
+
+	/**
+	 * 原點X座標。
+	 */
+	private double x;
+	/**
+	 * 原點Y座標。
+	 */
+	private double y;
+	/**
+	 * 排列方式。
+	 */
+	private PileLayout layout;
+	/**
+	 * 由下而上的牌的編號。
+	 */
+	private int[] cards = new int[8];
+	/**
+	 * 牌的數量。
+	 */
+	private int size;
+	/**
+	 * 是否需要重新排版。
+	 */
+	private boolean dirty;
+
+	/**
+	 * 建構子。
+	 *
+	 * @param x 傳入原點X座標
+	 * @param y 傳入原點Y座標
+	 * @param layout 傳入排列方式
+	 */
+	Pile(final double x, final double y, final PileLayout layout) {
+	    this.x = x;
+	    this.y = y;
+	    this.layout = layout;
+	}
+    }
+
+    // -----物件變數-----
+    /**
+     * 儲存所有的疊。
+     */
+    private Pile[] piles = new Pile[8];
+    /**
+     * 儲存疊的數量。
+     */
+    private int pileCount;
+    /**
+     * 儲存需要重新排版的疊。
+     */
+    private int[] dirtyPiles = new int[8];
+    /**
+     * 儲存需要重新排版的疊的數量。
+     */
+    private int dirtyCount;
+    /**
+     * 儲存牌的數量(編號的上限)。
+     */
+    private int cardCount;
+    /**
+     * 儲存每張牌所在的疊，不在任何一疊中時為NONE。
+     */
+    private int[] pileOf = new int[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌在疊中的位置(由下而上，從0開始)。
+     */
+    private int[] indexOf = new int[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌是否顯示背面。
+     */
+    private boolean[] backs = new boolean[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌的X座標。
+     */
+    private float[] xs = new float[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌的Y座標。
+     */
+    private float[] ys = new float[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌的旋轉角度。
+     */
+    private float[] angles = new float[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌是否已經被排版過，新加入或移除後為false。
+     */
+    private boolean[] placed = new boolean[DEFAULT_CAPACITY];
+    /**
+     * 儲存每張牌是否已經在pending中。
+     */
+    private boolean[] marked = new boolean[DEFAULT_CAPACITY];
+    /**
+     * 儲存這一次layout()之前改變的牌。
+     */
+    private int[] pending = new int[DEFAULT_CAPACITY];
+    /**
+     * 儲存這一次layout()之前改變的牌的數量。
+     */
+    private int pendingCount;
+    /**
+     * 儲存上一次layout()中改變的牌。
+     */
+    private int[] changed = new int[DEFAULT_CAPACITY];
+    /**
+     * 儲存上一次layout()中改變的牌的數量。
+     */
+    private int changedCount;
+    /**
+     * 儲存排列方式使用的暫存陣列。
+     */
+    private boolean[] scratchBacks = new boolean[DEFAULT_CAPACITY];
+    /**
+     * 儲存排列方式使用的暫存陣列。
+     */
+    private float[] scratchXs = new float[DEFAULT_CAPACITY];
+    /**
+     * 儲存排列方式使用的暫存陣列。
+     */
+    private float[] scratchYs = new float[DEFAULT_CAPACITY];
+    /**
+     * 儲存排列方式使用的暫存陣列。
+     */
+    private float[] scratchAngles = new float[DEFAULT_CAPACITY];
+
+    // -----物件方法-----
+    /**
+     * 新增一疊牌。
+     *
+     * @param x 傳入原點X座標
+     * @param y 傳入原點Y座標
+     * @param layout 傳入排列方式
+     * @return 傳回疊的編號
+     */
+    public int addPile(final double x, final double y, final PileLayout layout) {
+	if (pileCount == piles.length) {
+	    piles = Arrays.copyOf(piles, pileCount << 1);
+	}
+	piles[pileCount] = new Pile(x, y, layout);
+	return pileCount++;
+    }
+
+    /**
+     * 取得疊的數量。
+     *
+     * @return 傳回疊的數量
+     */
+    public int getPileCount() {
+	return pileCount;
+    }
+
+    /**
+     * 移動一疊牌的原點。
+     *
+     * @param pile 傳入疊的編號
+     * @param x 傳入原點X座標
+     * @param y 傳入原點Y座標
+     */
+    public void setPileOrigin(final int pile, final double x, final double y) {
+	final Pile p = piles[pile];
+	p.x = x;
+	p.y = y;
+	markDirty(pile);
+    }
+
+    /**
+     * 改變一疊牌的排列方式。
+     *
+     * @param pile 傳入疊的編號
+     * @param layout 傳入排列方式
+     */
+    public void setPileLayout(final int pile, final PileLayout layout) {
+	piles[pile].layout = layout;
+	markDirty(pile);
+    }
+
+    /**
+     * 取得一疊牌的數量。
+     *
+     * @param pile 傳入疊的編號
+     * @return 傳回牌的數量
+     */
+    public int getPileSize(final int pile) {
+	return piles[pile].size;
+    }
+
+    /**
+     * 取得一疊牌中某個位置的牌。
+     *
+     * @param pile 傳入疊的編號
+     * @param index 傳入位置(由下而上，從0開始)
+     * @return 傳回牌的編號
+     */
+    public int getCardAt(final int pile, final int index) {
+	final Pile p = piles[pile];
+	if (index < 0 || index >= p.size) {
+	    throw new IndexOutOfBoundsException("Index: " + index + ", size: " + p.size);
+	}
+	return p.cards[index];
+    }
+
+    /**
+     * 新增一張牌，還不在任何一疊中。
+     *
+     * @param back 傳入是否顯示背面
+     * @return 傳回牌的編號
+     */
+    public int addCard(final boolean back) {
+	if (cardCount == pileOf.length) {
+	    final int capacity = cardCount << 1;
+	    pileOf = Arrays.copyOf(pileOf, capacity);
+	    indexOf = Arrays.copyOf(indexOf, capacity);
+	    backs = Arrays.copyOf(backs, capacity);
+	    xs = Arrays.copyOf(xs, capacity);
+	    ys = Arrays.copyOf(ys, capacity);
+	    angles = Arrays.copyOf(angles, capacity);
+	    placed = Arrays.copyOf(placed, capacity);
+	    marked = Arrays.copyOf(marked, capacity);
+	    pending = Arrays.copyOf(pending, capacity);
+	    changed = Arrays.copyOf(changed, capacity);
+	}
+	pileOf[cardCount] = NONE;
+	backs[cardCount] = back;
+	return cardCount++;
+    }
+
+    /**
+     * 取得牌的數量。
+     *
+     * @return 傳回牌的數量
+     */
+    public int getCardCount() {
+	return cardCount;
+    }
+
+    /**
+     * 將牌放到某一疊的最上面，若牌已經在另一疊中，會先從原本的疊移除。
+     *
+     * @param card 傳入牌的編號
+     * @param pile 傳入疊的編號
+     */
+    public void moveTo(final int card, final int pile) {
+	remove(card);
+	final Pile p = piles[pile];
+	if (p.size == p.cards.length) {
+	    p.cards = Arrays.copyOf(p.cards, p.size << 1);
+	}
+	p.cards[p.size] = card;
+	pileOf[card] = pile;
+	indexOf[card] = p.size++;
+	markDirty(pile);
+    }
+
+    /**
+     * 將牌從所在的疊移除。
+     *
+     * @param card 傳入牌的編號
+     */
+    public void remove(final int card) {
+	final int pile = pileOf[card];
+	if (pile == NONE) {
+	    return;
+	}
+	final Pile p = piles[pile];
+	final int index = indexOf[card];
+	System.arraycopy(p.cards, index + 1, p.cards, index, p.size - index - 1);
+	--p.size;
+	for (int i = index; i < p.size; ++i) {
+	    indexOf[p.cards[i]] = i;
+	}
+	pileOf[card] = NONE;
+	placed[card] = false;
+	mark(card);
+	markDirty(pile);
+    }
+
+    /**
+     * 設定牌是否顯示背面。排列方式(例如瀑布式)可能因此改變。
+     *
+     * @param card 傳入牌的編號
+     * @param back 傳入是否顯示背面
+     */
+    public void setBack(final int card, final boolean back) {
+	if (backs[card] != back) {
+	    backs[card] = back;
+	    if (pileOf[card] != NONE) {
+		markDirty(pileOf[card]);
+	    }
+	}
+    }
+
+    /**
+     * 判斷牌是否顯示背面。
+     *
+     * @param card 傳入牌的編號
+     * @return 傳回是否顯示背面
+     */
+    public boolean isBack(final int card) {
+	return backs[card];
+    }
+
+    /**
+     * 標記一疊牌需要重新排版。
+     *
+     * @param pile 傳入疊的編號
+     */
+    private void markDirty(final int pile) {
+	final Pile p = piles[pile];
+	if (!p.dirty) {
+	    p.dirty = true;
+	    if (dirtyCount == dirtyPiles.length) {
+		dirtyPiles = Arrays.copyOf(dirtyPiles, dirtyCount << 1);
+	    }
+	    dirtyPiles[dirtyCount++] = pile;
+	}
+    }
+
+    /**
+     * 記錄改變的牌。
+     *
+     * @param card 傳入牌的編號
+     */
+    private void mark(final int card) {
+	if (!marked[card]) {
+	    marked[card] = true;
+	    pending[pendingCount++] = card;
+	}
+    }
+
+    /**
+     * 判斷是否有需要重新排版的疊。
+     *
+     * @return 傳回是否需要重新排版
+     */
+    public boolean needsLayout() {
+	return dirtyCount > 0;
+    }
+
+    /**
+     * 重新計算需要重新排版的疊，之後可以用getChangedCount()和getChanged(int)取得這段期間改變的牌，包括位置改變的牌和被移除的牌。
+     *
+     * @return 傳回重新計算的疊的數量
+     */
+    public int layout() {
+	final int count = dirtyCount;
+	for (int d = 0; d < count; ++d) {
+	    final Pile p = piles[dirtyPiles[d]];
+	    p.dirty = false;
+	    final int size = p.size;
+	    if (size > scratchXs.length) {
+		final int capacity = Math.max(size, scratchXs.length << 1);
+		scratchBacks = new boolean[capacity];
+		scratchXs = new float[capacity];
+		scratchYs = new float[capacity];
+		scratchAngles = new float[capacity];
+	    }
+	    for (int i = 0; i < size; ++i) {
+		scratchBacks[i] = backs[p.cards[i]];
+	    }
+	    p.layout.layout(size, scratchBacks, scratchXs, scratchYs, scratchAngles);
+	    for (int i = 0; i < size; ++i) {
+		final int card = p.cards[i];
+		final float x = (float) (p.x + scratchXs[i]);
+		final float y = (float) (p.y + scratchYs[i]);
+		final float angle = scratchAngles[i];
+		if (!placed[card] || x != xs[card] || y != ys[card] || angle != angles[card]) {
+		    xs[card] = x;
+		    ys[card] = y;
+		    angles[card] = angle;
+		    placed[card] = true;
+		    mark(card);
+		}
+	    }
+	}
+	dirtyCount = 0;
+
+	//交換兩個陣列，pending成為這一次的結果
+	final int[] swap = changed;
+	changed = pending;
+	changedCount = pendingCount;
+	pending = swap;
+	pendingCount = 0;
+	for (int i = 0; i < changedCount; ++i) {
+	    marked[changed[i]] = false;
+	}
+	return count;
+    }
+
+    /**
+     * 取得上一次layout()中改變的牌的數量。
+     *
+     * @return 傳回牌的數量
+     */
+    public int getChangedCount() {
+	return changedCount;
+    }
+
+    /**
+     * 取得上一次layout()中改變的牌。
+     *
+     * @param i 傳入索引(0~getChangedCount()-1)
+     * @return 傳回牌的編號
+     */
+    public int getChanged(final int i) {
+	if (i < 0 || i >= changedCount) {
+	    throw new IndexOutOfBoundsException("Index: " + i + ", size: " + changedCount);
+	}
+	return changed[i];
+    }
+
+    /**
+     * 取得牌所在的疊。
+     *
+     * @param card 傳入牌的編號
+     * @return 傳回疊的編號，不在任何一疊中時傳回NONE
+     */
+    public int getPile(final int card) {
+	return pileOf[card];
+    }
+
+    /**
+     * 取得牌在所在的疊中的位置。
+     *
+     * @param card 傳入牌的編號
+     * @return 傳回位置(由下而上，從0開始)，不在任何一疊中時傳回NONE
+     */
+    public int getIndex(final int card) {
+	return pileOf[card] == NONE ? NONE : indexOf[card];
+    }
+
+    /**
+     * 取得牌的X座標。
+     *
+     * @param card 傳入牌的編號
+     * @return 傳回X座標
+     */
+    public float getX(final int card) {
+	return xs[card];
+    }
+
+    /**
+     * 取得牌的Y座標。
+     *
+     * @param card 傳入牌的編號
+     * @return 傳回Y座標
+     */
+    public float getY(final int card) {
+	return ys[card];
+    }
+
+    /**
+     * 取得牌的旋轉角度。
+     *
+     * @param card 傳入牌的編號
+     * @return 傳回旋轉角度(度)
+     */
+    public float getAngle(final int card) {
+	return angles[card];
+    }
+}
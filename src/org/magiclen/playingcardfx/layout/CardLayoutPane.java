@@ -0,0 +1,166 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.layout;
+
+import java.util.ArrayList;
+import javafx.scene.Group;
+import javafx.scene.layout.Pane;
+import org.magiclen.playingcardfx.playingcard.PlayingCard;
+
+/**
+ * <p>
+ * 使用CardLayout排版的容器。
+ * </p>
+ * <p>
+ * 牌不受容器管理(unmanaged)，因此容器排版時不會量測每一張牌；每次排版只讀取CardLayout中改變的牌，移動與旋轉它們。牌被移到另一疊時會被放到最上層。
+ * </p>
+ * <p>
+ * 因為PlayingCard以花色和牌值判斷是否相等，同一個Parent中不能放兩張相同的牌，所以每張牌都包在一個Group中，使多副牌的牌桌也可以顯示。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class CardLayoutPane extends Pane {
+
+    // -----物件常數-----
+    /**
+     * 儲存排版引擎。
+     */
+    private final CardLayout cardLayout = new CardLayout();
+    /**
+     * 儲存每張牌，以牌的編號為索引。
+     */
+    private final ArrayList<PlayingCard> cards = new ArrayList<>();
+    /**
+     * 儲存包住每張牌的節點，以牌的編號為索引。
+     */
+    private final ArrayList<Group> holders = new ArrayList<>();
+
+    // -----物件方法-----
+    /**
+     * 取得排版引擎。
+     *
+     * @return 傳回排版引擎
+     */
+    public CardLayout getCardLayout() {
+	return cardLayout;
+    }
+
+    /**
+     * 新增一疊牌。
+     *
+     * @param x 傳入原點X座標
+     * @param y 傳入原點Y座標
+     * @param layout 傳入排列方式
+     * @return 傳回疊的編號
+     */
+    public int addPile(final double x, final double y, final PileLayout layout) {
+	return cardLayout.addPile(x, y, layout);
+    }
+
+    /**
+     * 加入一張牌到某一疊的最上面。
+     *
+     * @param card 傳入撲克牌
+     * @param pile 傳入疊的編號
+     * @return 傳回牌的編號
+     */
+    public int addCard(final PlayingCard card, final int pile) {
+	final int id = cardLayout.addCard(card.isBack());
+	final Group holder = new Group(card);
+	holder.setManaged(false);
+	cards.add(card);
+	holders.add(holder);
+	getChildren().add(holder);
+	cardLayout.moveTo(id, pile);
+	requestLayout();
+	return id;
+    }
+
+    /**
+     * 取得牌。
+     *
+     * @param id 傳入牌的編號
+     * @return 傳回撲克牌
+     */
+    public PlayingCard getCard(final int id) {
+	return cards.get(id);
+    }
+
+    /**
+     * 將牌移到某一疊的最上面。
+     *
+     * @param id 傳入牌的編號
+     * @param pile 傳入疊的編號
+     */
+    public void moveTo(final int id, final int pile) {
+	cardLayout.moveTo(id, pile);
+	holders.get(id).toFront();
+	requestLayout();
+    }
+
+    /**
+     * 將牌從所在的疊移除並隱藏。
+     *
+     * @param id 傳入牌的編號
+     */
+    public void remove(final int id) {
+	cardLayout.remove(id);
+	requestLayout();
+    }
+
+    /**
+     * 設定牌是否顯示背面，並重繪牌。排列方式(例如瀑布式)可能因此改變。
+     *
+     * @param id 傳入牌的編號
+     * @param back 傳入是否顯示背面
+     */
+    public void setBack(final int id, final boolean back) {
+	final PlayingCard card = cards.get(id);
+	if (card.isBack() != back) {
+	    card.setBack(back);
+	    card.resetCanvas();
+	}
+	cardLayout.setBack(id, back);
+	requestLayout();
+    }
+
+    /**
+     * 排版，只移動CardLayout中改變的牌。
+     */
+    @Override
+    protected void layoutChildren() {
+	super.layoutChildren();
+	if (!cardLayout.needsLayout()) {
+	    return;
+	}
+	cardLayout.layout();
+	final int count = cardLayout.getChangedCount();
+	for (int i = 0; i < count; ++i) {
+	    final int id = cardLayout.getChanged(i);
+	    final Group holder = holders.get(id);
+	    if (cardLayout.getPile(id) == CardLayout.NONE) {
+		holder.setVisible(false);
+		continue;
+	    }
+	    holder.setVisible(true);
+	    holder.relocate(cardLayout.getX(id), cardLayout.getY(id));
+	    holder.setRotate(cardLayout.getAngle(id));
+	}
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.layout;
+
+/**
+ * <p>
+ * 一疊牌的排列方式。
+ * </p>
+ * <p>
+ * 依照牌的數量(以及是否顯示背面)計算每張牌相對於這疊牌原點的座標與旋轉角度，結果寫入基本型態的陣列中，不會建立物件。排列方式必須是無狀態的，同一個物件可以被多疊牌共用。
+ * </p>
+ *
+ * @author Magic Len
+ */
+@FunctionalInterface
+public interface PileLayout {
+
+    /**
+     * <p>
+     * 建立扇形的排列方式，例如手上的牌。
+     * </p>
+     * <p>
+     * 牌沿著圓弧排列，每張牌之間的角度為step，但總角度不超過maxSpread，整個扇形以原點為中心左右對稱。
+     * </p>
+     *
+     * @param radius 傳入圓弧的半徑
+     * @param step 傳入每張牌之間的角度(度)
+     * @param maxSpread 傳入總角度的上限(度)
+     * @return 傳回排列方式
+     */
+    static PileLayout fan(final double radius, final double step, final double maxSpread) {
+	return (count, backs, xs, ys, angles) -> {
+	    final double delta = count > 1 ? Math.min(step, maxSpread / (count - 1)) : 0;
+	    final double first = -delta * (count - 1) / 2;
+	    for (int i = 0; i < count; ++i) {
+		final double angle = first + delta * i;
+		final double radians = Math.toRadians(angle);
+		xs[i] = (float) (radius * Math.sin(radians));
+		ys[i] = (float) (radius * (1 - Math.cos(radians)));
+		angles[i] = (float) angle;
+	    }
+	};
+    }
+
+    /**
+     * 建立疊放的排列方式，例如牌堆或棄牌堆。每張牌比前一張偏移一點點，讓牌堆看起來有厚度。
+     *
+     * @param dx 傳入每張牌的X偏移量
+     * @param dy 傳入每張牌的Y偏移量
+     * @return 傳回排列方式
+     */
+    static PileLayout pile(final double dx, final double dy) {
+	return (count, backs, xs, ys, angles) -> {
+	    for (int i = 0; i < count; ++i) {
+		xs[i] = (float) (dx * i);
+		ys[i] = (float) (dy * i);
+		angles[i] = 0;
+	    }
+	};
+    }
+
+    /**
+     * 建立瀑布式的排列方式，例如接龍的牌列。顯示背面的牌只露出一小部分，顯示正面的牌露出較多，方便看到牌值。
+     *
+     * @param backOffset 傳入顯示背面的牌與下一張牌的距離
+     * @param faceOffset 傳入顯示正面的牌與下一張牌的距離
+     * @return 傳回排列方式
+     */
+    static PileLayout cascade(final double backOffset, final double faceOffset) {
+	return (count, backs, xs, ys, angles) -> {
+	    double y = 0;
+	    for (int i = 0; i < count; ++i) {
+		xs[i] = 0;
+		ys[i] = (float) y;
+		angles[i] = 0;
+		y += backs[i] ? backOffset : faceOffset;
+	    }
+	};
+    }
+
+    /**
+     * 建立格狀的排列方式，由左而右、由上而下排列。
+     *
+     * @param columns 傳入每列的牌數
+     * @param cellWidth 傳入每格的寬度
+     * @param cellHeight 傳入每格的高度
+     * @return 傳回排列方式
+     */
+    static PileLayout grid(final int columns, final double cellWidth, final double cellHeight) {
+	if (columns <= 0) {
+	    throw new IllegalArgumentException("columns must be positive: " + columns);
+	}
+	return (count, backs, xs, ys, angles) -> {
+	    for (int i = 0; i < count; ++i) {
+		xs[i] = (float) (cellWidth * (i % columns));
+		ys[i] = (float) (cellHeight * (i / columns));
+		angles[i] = 0;
+	    }
+	};
+    }
+
+    /**
+     * 計算每張牌的位置。陣列的長度至少為count，只需要寫入前count個元素。
+     *
+     * @param count 傳入牌的數量
+     * @param backs 傳入每張牌是否顯示背面，由下而上排列
+     * @param xs 傳入用來儲存X座標(相對於原點)的陣列
+     * @param ys 傳入用來儲存Y座標(相對於原點)的陣列
+     * @param angles 傳入用來儲存旋轉角度(度)的陣列
+     */
+    void layout(int count, boolean[] backs, float[] xs, float[] ys, float[] angles);
+}
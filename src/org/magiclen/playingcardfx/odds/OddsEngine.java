@@ -0,0 +1,323 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.odds;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.CardSet;
+
+/**
+ * <p>
+ * 精確的機率計算引擎。
+ * </p>
+ * <p>
+ * 剩下的牌以CardSet的集合表示，從中不放回地抽出幾張牌，計算達成目標的精確機率(而不是模擬的估計值)。OddsPattern的目標以超幾何分佈計數：依序處理每個牌組，記錄「已抽的張數」與「是否已經成立」這兩個子問題的方法數，時間只和牌組數量與抽牌張數有關。無法分解成牌組的目標可以用LongPredicate判斷每一種抽法，組合數量大時會平行列舉。
+ * </p>
+ * <p>
+ * 結果會以剩下的牌、抽牌張數與目標為鍵值快取，重複的查詢只需要一次查表。此類別是執行緒安全的。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class OddsEngine {
+
+    // -----類別常數-----
+    /**
+     * 組合數表，COMBINATIONS[n][k]為n取k的組合數。
+     */
+    private static final long[][] COMBINATIONS = new long[CardCode.COUNT + 1][CardCode.COUNT + 1];
+    /**
+     * 快取的最大數量，超過時清空。
+     */
+    private static final int MAX_CACHED_RESULTS = 4096;
+    /**
+     * 組合數量超過此值時平行列舉。
+     */
+    private static final long PARALLEL_THRESHOLD = 100_000;
+    /**
+     * 整個程式共用的引擎。
+     */
+    private static final OddsEngine DEFAULT = new OddsEngine();
+
+    static {
+	for (int n = 0; n <= CardCode.COUNT; ++n) {
+	    COMBINATIONS[n][0] = 1;
+	    for (int k = 1; k <= n; ++k) {
+		COMBINATIONS[n][k] = COMBINATIONS[n - 1][k - 1] + COMBINATIONS[n - 1][k];
+	    }
+	}
+    }
+
+    // -----類別方法-----
+    /**
+     * 取得整個程式共用的引擎。
+     *
+     * @return 傳回引擎
+     */
+    public static OddsEngine getDefault() {
+	return DEFAULT;
+    }
+
+    /**
+     * 計算組合數。
+     *
+     * @param n 傳入總數(0~54)
+     * @param k 傳入取出的數量
+     * @return 傳回n取k的組合數，k超出範圍時傳回0
+     */
+    public static long combinations(final int n, final int k) {
+	if (k < 0 || k > n) {
+	    return 0;
+	}
+	return COMBINATIONS[n][k];
+    }
+
+    /**
+     * 計算超幾何分佈的機率：從total張牌(其中targets張是目標牌)抽出draws張，剛好抽到hits張目標牌的機率。
+     *
+     * @param total 傳入總張數
+     * @param targets 傳入目標牌的張數
+     * @param draws 傳入抽牌張數
+     * @param hits 傳入抽到目標牌的張數
+     * @return 傳回機率
+     */
+    public static double hypergeometric(final int total, final int targets, final int draws, final int hits) {
+	return (double) combinations(targets, hits) * combinations(total - targets, draws - hits) / combinations(total, draws);
+    }
+
+    // -----內部類別-----
+    /**
+     * 快取的鍵值。
+     */
+    private static final class Key {
+
+	/**
+	 * 剩下的牌。
+	 */
+	private final long remaining;
+	/**
+	 * 抽牌張數。
+	 */
+	private final int draws;
+	/**
+	 * 目標。
+	 */
+	private final Object target;
+
+	/**
+	 * 建構子。
+	 *
+	 * @param remaining 傳入剩下的牌
+	 * @param draws 傳入抽牌張數
+	 * @param target 傳入目標
+	 */
+	Key(final long remaining, final int draws, final Object target) {
+	    this.remaining = remaining;
+	    this.draws = draws;
+	    this.target = target;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+	    if (!(o instanceof Key)) {
+		return false;
+	    }
+	    final Key key = (Key) o;
+	    return remaining == key.remaining && draws == key.draws && target.equals(key.target);
+	}
+
+	@Override
+	public int hashCode() {
+	    return (Long.hashCode(remaining) * 31 + draws) * 31 + target.hashCode();
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存快取的結果。
+     */
+    private final ConcurrentHashMap<Key, Double> cache = new ConcurrentHashMap<>();
+
+    // -----物件方法-----
+    /**
+     * 計算抽牌後達成目標的機率。
+     *
+     * @param remaining 傳入剩下的牌
+     * @param draws 傳入抽牌張數
+     * @param pattern 傳入目標
+     * @return 傳回機率
+     */
+    public double probability(final long remaining, final int draws, final OddsPattern pattern) {
+	return cached(new Key(remaining, draws, pattern), () -> (double) count(remaining, draws, pattern) / combinations(CardSet.size(remaining), draws));
+    }
+
+    /**
+     * <p>
+     * 計算抽牌後達成目標的機率，目標以判斷抽到的牌的函數表示。
+     * </p>
+     * <p>
+     * 會列舉每一種抽法，只適合抽牌張數不多的情況。結果會以函數物件為鍵值快取，因此相同的目標應該重複使用同一個函數物件。
+     * </p>
+     *
+     * @param remaining 傳入剩下的牌
+     * @param draws 傳入抽牌張數
+     * @param predicate 傳入判斷抽到的牌(CardSet的集合)是否達成目標的函數
+     * @return 傳回機率
+     */
+    public double probability(final long remaining, final int draws, final LongPredicate predicate) {
+	return cached(new Key(remaining, draws, predicate), () -> (double) count(remaining, draws, predicate) / combinations(CardSet.size(remaining), draws));
+    }
+
+    /**
+     * 從快取取得結果，沒有時計算並存入快取。
+     *
+     * @param key 傳入鍵值
+     * @param computer 傳入計算結果的函數
+     * @return 傳回結果
+     */
+    private double cached(final Key key, final DoubleSupplier computer) {
+	final Double result = cache.get(key);
+	if (result != null) {
+	    return result;
+	}
+	checkDraws(key.remaining, key.draws);
+	final double computed = computer.getAsDouble();
+	if (cache.size() >= MAX_CACHED_RESULTS) {
+	    cache.clear();
+	}
+	cache.put(key, computed);
+	return computed;
+    }
+
+    /**
+     * 檢查抽牌張數是否合理。
+     *
+     * @param remaining 傳入剩下的牌
+     * @param draws 傳入抽牌張數
+     */
+    private static void checkDraws(final long remaining, final int draws) {
+	if (draws < 0 || draws > CardSet.size(remaining)) {
+	    throw new IllegalArgumentException("Cannot draw " + draws + " cards from " + CardSet.size(remaining) + " cards.");
+	}
+    }
+
+    /**
+     * 計算達成目標的抽法數量。
+     *
+     * @param remaining 傳入剩下的牌
+     * @param draws 傳入抽牌張數
+     * @param pattern 傳入目標
+     * @return 傳回抽法數量
+     */
+    public long count(final long remaining, final int draws, final OddsPattern pattern) {
+	checkDraws(remaining, draws);
+	final boolean all = pattern.isAll();
+	//ways[d][s]：已處理的牌組中抽了d張牌，且目標(s為1)已成立或(s為0)未成立的方法數
+	long[][] ways = new long[draws + 1][2];
+	long[][] next = new long[draws + 1][2];
+	ways[0][all ? 1 : 0] = 1;
+	int rest = CardSet.size(remaining);
+	for (int g = 0; g < pattern.getGroupCount(); ++g) {
+	    final int size = CardSet.size(remaining & pattern.getGroup(g));
+	    final int need = pattern.getNeed(g);
+	    rest -= size;
+	    for (final long[] row : next) {
+		row[0] = 0;
+		row[1] = 0;
+	    }
+	    for (int d = 0; d <= draws; ++d) {
+		for (int s = 0; s < 2; ++s) {
+		    final long w = ways[d][s];
+		    if (w == 0) {
+			continue;
+		    }
+		    final int max = Math.min(size, draws - d);
+		    for (int k = 0; k <= max; ++k) {
+			final boolean reached = k >= need;
+			final int t = all ? (s == 1 && reached ? 1 : 0) : (s == 1 || reached ? 1 : 0);
+			next[d + k][t] += w * COMBINATIONS[size][k];
+		    }
+		}
+	    }
+	    final long[][] swap = ways;
+	    ways = next;
+	    next = swap;
+	}
+	//剩下不屬於任何牌組的牌可以任意抽
+	long favorable = 0;
+	for (int d = 0; d <= draws; ++d) {
+	    favorable += ways[d][1] * combinations(rest, draws - d);
+	}
+	return favorable;
+    }
+
+    /**
+     * 列舉每一種抽法，計算達成目標的抽法數量。組合數量大時會平行列舉。
+     *
+     * @param remaining 傳入剩下的牌
+     * @param draws 傳入抽牌張數
+     * @param predicate 傳入判斷抽到的牌是否達成目標的函數，平行列舉時會被多個執行緒呼叫
+     * @return 傳回抽法數量
+     */
+    public long count(final long remaining, final int draws, final LongPredicate predicate) {
+	checkDraws(remaining, draws);
+	final int[] cards = CardSet.toArray(remaining);
+	if (draws == 0) {
+	    return predicate.test(CardSet.EMPTY) ? 1 : 0;
+	}
+	if (combinations(cards.length, draws) < PARALLEL_THRESHOLD) {
+	    return enumerate(cards, 0, draws, CardSet.EMPTY, predicate);
+	}
+	//依照第一張(索引值最小的)牌分割工作
+	return IntStream.rangeClosed(0, cards.length - draws).parallel()
+		.mapToLong(first -> enumerate(cards, first + 1, draws - 1, 1L << cards[first], predicate))
+		.sum();
+    }
+
+    /**
+     * 遞迴列舉抽法。
+     *
+     * @param cards 傳入剩下的牌的索引值
+     * @param start 傳入可以抽的第一張牌在陣列中的位置
+     * @param left 傳入還要抽的張數
+     * @param drawn 傳入已經抽到的牌
+     * @param predicate 傳入判斷是否達成目標的函數
+     * @return 傳回達成目標的抽法數量
+     */
+    private static long enumerate(final int[] cards, final int start, final int left, final long drawn, final LongPredicate predicate) {
+	if (left == 0) {
+	    return predicate.test(drawn) ? 1 : 0;
+	}
+	long count = 0;
+	final int end = cards.length - left;
+	for (int i = start; i <= end; ++i) {
+	    count += enumerate(cards, i + 1, left - 1, drawn | (1L << cards[i]), predicate);
+	}
+	return count;
+    }
+
+    /**
+     * 清空快取。
+     */
+    public void clearCache() {
+	cache.clear();
+    }
+}
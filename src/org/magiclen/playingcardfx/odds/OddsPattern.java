@@ -0,0 +1,191 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.odds;
+
+import java.util.Arrays;
+import org.magiclen.playingcardfx.playingcard.CardSet;
+
+/**
+ * <p>
+ * 機率計算的目標。
+ * </p>
+ * <p>
+ * 目標由數個互不重疊的牌組(CardSet的集合)組成，每個牌組都有需要抽到的張數。ANY表示只要有一個牌組達到需要的張數就成立，ALL表示所有的牌組都必須達到。例如「河牌前湊成同花」就是四個花色的ANY目標，每個花色需要的張數為5減去手上已有的張數。
+ * </p>
+ * <p>
+ * 目標是不可變的，並且實作equals和hashCode，可以當作OddsEngine快取的鍵值。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class OddsPattern {
+
+    // -----類別方法-----
+    /**
+     * 建立至少抽到幾張某些牌的目標，例如下一張是人像：atLeast(CardFilter.COURT, 1)。
+     *
+     * @param targets 傳入目標牌的集合
+     * @param count 傳入需要的張數
+     * @return 傳回目標
+     */
+    public static OddsPattern atLeast(final long targets, final int count) {
+	return new OddsPattern(new long[]{targets}, new int[]{count}, false);
+    }
+
+    /**
+     * 建立只要有一個牌組達到需要的張數就成立的目標。
+     *
+     * @param groups 傳入互不重疊的牌組
+     * @param needs 傳入每個牌組需要的張數
+     * @return 傳回目標
+     */
+    public static OddsPattern anyOf(final long[] groups, final int[] needs) {
+	return new OddsPattern(groups.clone(), needs.clone(), false);
+    }
+
+    /**
+     * 建立所有的牌組都必須達到需要的張數的目標。
+     *
+     * @param groups 傳入互不重疊的牌組
+     * @param needs 傳入每個牌組需要的張數
+     * @return 傳回目標
+     */
+    public static OddsPattern allOf(final long[] groups, final int[] needs) {
+	return new OddsPattern(groups.clone(), needs.clone(), true);
+    }
+
+    /**
+     * 建立湊成同花的目標。
+     *
+     * @param hand 傳入手上(包括公開的牌)已有的牌
+     * @param size 傳入同花需要的張數，通常為5
+     * @return 傳回目標
+     */
+    public static OddsPattern flush(final long hand, final int size) {
+	final long[] groups = new long[4];
+	final int[] needs = new int[4];
+	for (int i = 0; i < 4; ++i) {
+	    final long suit = CardSet.suitMask(i + 1);
+	    groups[i] = suit;
+	    needs[i] = Math.max(0, size - CardSet.size(hand & suit));
+	}
+	return new OddsPattern(groups, needs, false);
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存牌組。
+     */
+    private final long[] groups;
+    /**
+     * 儲存每個牌組需要的張數。
+     */
+    private final int[] needs;
+    /**
+     * 儲存是否所有的牌組都必須達到。
+     */
+    private final boolean all;
+    /**
+     * 儲存雜湊值。
+     */
+    private final int hash;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param groups 傳入互不重疊的牌組
+     * @param needs 傳入每個牌組需要的張數
+     * @param all 傳入是否所有的牌組都必須達到
+     */
+    private OddsPattern(final long[] groups, final int[] needs, final boolean all) {
+	if (groups.length != needs.length || groups.length == 0) {
+	    throw new IllegalArgumentException("Groups and needs must have the same, non-zero length.");
+	}
+	long union = CardSet.EMPTY;
+	for (int i = 0; i < groups.length; ++i) {
+	    if ((union & groups[i]) != 0) {
+		throw new IllegalArgumentException("Groups must not overlap.");
+	    }
+	    if (needs[i] < 0) {
+		throw new IllegalArgumentException("Needs must not be negative: " + needs[i]);
+	    }
+	    union |= groups[i];
+	}
+	this.groups = groups;
+	this.needs = needs;
+	this.all = all;
+	hash = (Arrays.hashCode(groups) * 31 + Arrays.hashCode(needs)) * 2 + (all ? 1 : 0);
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得牌組的數量。
+     *
+     * @return 傳回牌組的數量
+     */
+    public int getGroupCount() {
+	return groups.length;
+    }
+
+    /**
+     * 取得牌組。
+     *
+     * @param i 傳入牌組的索引
+     * @return 傳回牌組
+     */
+    public long getGroup(final int i) {
+	return groups[i];
+    }
+
+    /**
+     * 取得牌組需要的張數。
+     *
+     * @param i 傳入牌組的索引
+     * @return 傳回需要的張數
+     */
+    public int getNeed(final int i) {
+	return needs[i];
+    }
+
+    /**
+     * 判斷是否所有的牌組都必須達到需要的張數。
+     *
+     * @return 傳回是否所有的牌組都必須達到
+     */
+    public boolean isAll() {
+	return all;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+	if (this == o) {
+	    return true;
+	}
+	if (!(o instanceof OddsPattern)) {
+	    return false;
+	}
+	final OddsPattern pattern = (OddsPattern) o;
+	return all == pattern.all && Arrays.equals(groups, pattern.groups) && Arrays.equals(needs, pattern.needs);
+    }
+
+    @Override
+    public int hashCode() {
+	return hash;
+    }
+}
@@ -17,7 +17,8 @@
  */
 package org.magiclen.playingcardfx.pages;
 
-import java.util.ArrayList;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -25,9 +26,11 @@ import javafx.geometry.Orientation;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.ListView;
 import javafx.scene.control.ScrollBar;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.BorderStroke;
@@ -37,6 +40,12 @@ import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
+import org.magiclen.playingcardfx.animation.CardAnimator;
+import org.magiclen.playingcardfx.catalog.CardCatalog;
+import org.magiclen.playingcardfx.catalog.CardCatalogView;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.CardTextureCache;
+import org.magiclen.playingcardfx.playingcard.CardTheme;
 import org.magiclen.playingcardfx.playingcard.PlayingCard;
 
 /**
@@ -51,11 +60,19 @@ public class Main extends BorderPane {
     private static final int MIN_SIZE = 30;
     private static final int MAX_SIZE = 250;
     private static final int SCROLL_SIZE_DELTA = 5;
+    private static final int FLIP_DURATION = 300;
+    private static final String[] THEME_NAMES = {"經典", "四色", "高對比"};
+    private static final CardTheme[] THEMES = {CardTheme.CLASSIC, CardTheme.FOUR_COLOR, CardTheme.HIGH_CONTRAST};
 
     // -----類別變數-----
     // -----物件變數-----
     private final Insets insets;
-    private final ListView lvCards;
+    private final Border border = new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderWidths.DEFAULT));
+    private final CardCatalog catalog = new CardCatalog(53);
+    private final CardCatalogView cardView;
+    private final TextField tfSearch;
+    private final ListView<String> lvCards;
+    private final BorderPane left;
     private final BorderPane center;
     private final ScrollPane scrollPane;
     private final FlowPane cardPane;
@@ -63,39 +80,30 @@ public class Main extends BorderPane {
     private final FlowPane controlPane;
     private final ScrollBar sbSize;
     private final CheckBox cbBack;
-    private final StackPane[] stackPanes = new StackPane[53];
-    private final PlayingCard[] cards = new PlayingCard[53];
-    private final ArrayList<String> v = new ArrayList<>();
+    private final ComboBox<String> cbTheme;
+    private final ObjectProperty<CardTheme> theme = new SimpleObjectProperty<>(CardTheme.CLASSIC);
+    private final StackPane[] stackPanes = new StackPane[CardCode.COUNT];
+    private final PlayingCard[] cards = new PlayingCard[CardCode.COUNT];
+    private final CardAnimator animator = new CardAnimator();
+    private int current = CardCode.SMALL_GHOST;
 
     // -----建構子-----
     public Main() {
 	insets = new Insets(GAP, GAP, GAP, GAP);
 
-	// 初始化StackPane
-	for (int i = 0; i < 53; ++i) {
-	    stackPanes[i] = new StackPane();
-	}
-
-	// 初始化撲克牌
-	cards[0] = new PlayingCard();
-	for (int i = 0; i < 53; ++i) {
-	    if (i > 0) {
-		cards[i] = new PlayingCard((i - 1) / 13 + 1, (i - 1) % 13 + 1);
-	    }
-	    v.add(cards[i].toString());
-	    FlowPane.setMargin(stackPanes[i], insets);
-	    stackPanes[i].getChildren().add(cards[i]);
-	    stackPanes[i].setBorder(new Border(new BorderStroke(Color.BLACK, BorderStrokeStyle.SOLID, CornerRadii.EMPTY, BorderWidths.DEFAULT)));
-	    final PlayingCard card = cards[i];
-	    card.setOnMouseClicked(e -> {
-		card.setSelected(!card.isSelected());
-		card.resetCanvas();
-	    }
-	    );
+	// 初始化撲克牌目錄，撲克牌物件等到第一次被選取時才建立
+	catalog.add(CardCode.SMALL_GHOST);
+	for (int i = 0; i < CardCode.SMALL_GHOST; ++i) {
+	    catalog.add(i);
 	}
+	cardView = new CardCatalogView(catalog);
 
 	// GUI元件
-	lvCards = new ListView(FXCollections.observableArrayList(v));
+	tfSearch = new TextField();
+	tfSearch.setPromptText("搜尋");
+	tfSearch.setPrefWidth(100);
+
+	lvCards = new ListView<>(cardView);
 	lvCards.setMaxSize(Integer.MAX_VALUE, Integer.MAX_VALUE);
 	lvCards.setPrefWidth(100);
 	lvCards.getSelectionModel().select(0);
@@ -103,9 +111,12 @@ public class Main extends BorderPane {
 	cardPane = new FlowPane();
 	cardPane.setAlignment(Pos.CENTER);
 	cardList = cardPane.getChildren();
-	cardList.add(stackPanes[0]);
+	cardList.add(getStackPane(current));
 	
 	cbBack = new CheckBox("顯示背面");
+
+	cbTheme = new ComboBox<>(FXCollections.observableArrayList(THEME_NAMES));
+	cbTheme.getSelectionModel().select(0);
 	
 	sbSize = new ScrollBar();
 	sbSize.setOrientation(Orientation.HORIZONTAL);
@@ -117,11 +128,12 @@ public class Main extends BorderPane {
 	
 	FlowPane.setMargin(cbBack, insets);
 	FlowPane.setMargin(sbSize, insets);
+	FlowPane.setMargin(cbTheme, insets);
 	controlPane = new FlowPane();
 	controlPane.setOrientation(Orientation.HORIZONTAL);
 	controlPane.setAlignment(Pos.CENTER);
 	final ObservableList<Node> children = controlPane.getChildren();
-	children.addAll(cbBack, sbSize);
+	children.addAll(cbBack, cbTheme, sbSize);
 	
 	scrollPane = new ScrollPane();
 	scrollPane.setContent(cardPane);
@@ -146,16 +158,30 @@ public class Main extends BorderPane {
 	center.setCenter(scrollPane);
 	center.setBottom(controlPane);
 	
-	BorderPane.setMargin(lvCards, insets);
+	BorderPane.setMargin(tfSearch, new Insets(0, 0, GAP, 0));
+	left = new BorderPane();
+	left.setTop(tfSearch);
+	left.setCenter(lvCards);
+
+	BorderPane.setMargin(left, insets);
 	BorderPane.setMargin(center, insets);
-	setLeft(lvCards);
+	setLeft(left);
 	setCenter(center);
 
 	// 事件
 	lvCards.getSelectionModel().selectedIndexProperty().addListener((e) -> {
 	    final int index = lvCards.getSelectionModel().getSelectedIndex();
-	    final StackPane stackPane = stackPanes[index];
-	    final PlayingCard card = cards[index];
+	    if (index < 0) {
+		return;
+	    }
+	    //離開畫面的牌要先完成它的動畫，不然它會停在翻到一半的狀態
+	    final PlayingCard previous = cards[current];
+	    if (previous != null) {
+		animator.finish(previous);
+	    }
+	    current = cardView.getCard(index);
+	    final StackPane stackPane = getStackPane(current);
+	    final PlayingCard card = cards[current];
 	    card.setBack(cbBack.isSelected());
 	    card.setSize(sbSize.getValue() / 100);
 	    card.setSelected(false);
@@ -164,19 +190,60 @@ public class Main extends BorderPane {
 	    cardList.add(stackPane);
 	});
 	
+	tfSearch.textProperty().addListener(e -> {
+	    cardView.setQuery(tfSearch.getText());
+	});
+
 	cbBack.setOnAction(e -> {
-	    final int index = lvCards.getSelectionModel().getSelectedIndex();
-	    final PlayingCard card = cards[index];
-	    card.setBack(cbBack.isSelected());
-	    card.resetCanvas();
+	    animator.flipTo(cards[current], cbBack.isSelected(), 0, FLIP_DURATION);
 	});
 	
+	cbTheme.getSelectionModel().selectedIndexProperty().addListener(e -> {
+	    theme.set(THEMES[cbTheme.getSelectionModel().getSelectedIndex()]);
+	});
+
 	sbSize.valueProperty().addListener(e -> {
 	    final double size = sbSize.getValue() / 100;
-	    final int index = lvCards.getSelectionModel().getSelectedIndex();
-	    final PlayingCard card = cards[index];
+	    final PlayingCard card = cards[current];
 	    card.setSize(size);
 	    card.resetCanvas();
 	});
     }
+
+    // -----物件方法-----
+    /**
+     * 取得放置撲克牌的StackPane，若撲克牌尚未建立，則建立撲克牌。
+     *
+     * @param index 傳入撲克牌的索引值(參考CardCode)
+     * @return 傳回StackPane
+     */
+    private StackPane getStackPane(final int index) {
+	if (stackPanes[index] == null) {
+	    final PlayingCard card = CardCode.newCard(index);
+	    final StackPane stackPane = new StackPane();
+	    FlowPane.setMargin(stackPane, insets);
+	    stackPane.getChildren().add(card);
+	    card.themeProperty().bind(theme);
+	    card.setTextureCache(CardTextureCache.getDefault());
+	    stackPane.setBorder(border);
+	    card.setOnMouseClicked(e -> {
+		card.setSelected(!card.isSelected());
+		card.resetCanvas();
+	    }
+	    );
+	    cards[index] = card;
+	    stackPanes[index] = stackPane;
+	}
+	return stackPanes[index];
+    }
+
+    /**
+     * 重繪目前顯示的撲克牌，例如字型載入完成的時候。
+     */
+    public void refresh() {
+	CardTextureCache.getDefault().invalidate();
+	if (cards[current] != null) {
+	    cards[current].resetCanvas();
+	}
+    }
 }
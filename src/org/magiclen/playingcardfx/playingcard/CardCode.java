@@ -0,0 +1,185 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.playingcard;
+
+import org.magiclen.playingcardfx.playingcard.PlayingCard.Suit;
+
+/**
+ * <p>
+ * 撲克牌編碼工具類別。
+ * </p>
+ * <p>
+ * 將一副牌(52張牌加上小鬼、大鬼)對應到0~53的索引值，使牌可以用基本型態的陣列來儲存與運算，不需要建立PlayingCard物件。
+ * </p>
+ * <p>
+ * 索引值 = (花色值-1)*13 + (牌值-1)，小鬼(鬼牌，牌值1)為52，大鬼(鬼牌，牌值2)為53。
+ * </p>
+ * <p>
+ * 另外也提供一個位元組的編碼方式，高4位元為花色值、低4位元為牌值，與PlayingCard的花色和牌值相同。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardCode {
+
+    // -----類別常數-----
+    /**
+     * 一副牌(包含兩張鬼牌)的張數。
+     */
+    public static final int COUNT = 54;
+    /**
+     * 一個花色的張數。
+     */
+    public static final int FACE_COUNT = 13;
+    /**
+     * 小鬼的索引值。
+     */
+    public static final int SMALL_GHOST = 52;
+    /**
+     * 大鬼的索引值。
+     */
+    public static final int BIG_GHOST = 53;
+    /**
+     * 不是合法的牌時所使用的索引值。
+     */
+    public static final int NONE = -1;
+    /**
+     * 花色陣列，避免每次呼叫Suit.values()時複製陣列。
+     */
+    private static final Suit[] SUITS = Suit.values();
+
+    // -----類別方法-----
+    /**
+     * 取得牌的索引值。
+     *
+     * @param suit 傳入牌的花色
+     * @param face 傳入牌值
+     * @return 傳回牌的索引值，若不是合法的牌，傳回NONE
+     */
+    public static int indexOf(final Suit suit, final int face) {
+	if (suit == null) {
+	    return NONE;
+	}
+	if (suit == Suit.GHOST) {
+	    switch (face) {
+		case 1:
+		    return SMALL_GHOST;
+		case 2:
+		    return BIG_GHOST;
+		default:
+		    return NONE;
+	    }
+	}
+	if (face < 1 || face > FACE_COUNT) {
+	    return NONE;
+	}
+	return (suit.ordinal() - 1) * FACE_COUNT + face - 1;
+    }
+
+    /**
+     * 取得撲克牌物件的索引值。
+     *
+     * @param card 傳入撲克牌
+     * @return 傳回牌的索引值，若不是合法的牌，傳回NONE
+     */
+    public static int indexOf(final PlayingCard card) {
+	return indexOf(card.getSuit(), card.getFace());
+    }
+
+    /**
+     * 判斷索引值是否合法。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回索引值是否合法
+     */
+    public static boolean isValid(final int index) {
+	return index >= 0 && index < COUNT;
+    }
+
+    /**
+     * 取得索引值所代表的牌的花色。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回牌的花色
+     */
+    public static Suit suitOf(final int index) {
+	return SUITS[suitOrdinalOf(index)];
+    }
+
+    /**
+     * 取得索引值所代表的牌的花色值。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回牌的花色值，鬼牌為0，黑桃為1，紅心為2，梅花為3，方塊為4
+     */
+    public static int suitOrdinalOf(final int index) {
+	return index >= SMALL_GHOST ? 0 : index / FACE_COUNT + 1;
+    }
+
+    /**
+     * 取得索引值所代表的牌值。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回牌值
+     */
+    public static int faceOf(final int index) {
+	return index >= SMALL_GHOST ? index - SMALL_GHOST + 1 : index % FACE_COUNT + 1;
+    }
+
+    /**
+     * 將牌的索引值編碼成一個位元組。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回編碼後的位元組
+     */
+    public static byte toByte(final int index) {
+	return (byte) ((suitOrdinalOf(index) << 4) | faceOf(index));
+    }
+
+    /**
+     * 將一個位元組解碼成牌的索引值。
+     *
+     * @param code 傳入編碼後的位元組
+     * @return 傳回牌的索引值，若不是合法的牌，傳回NONE
+     */
+    public static int fromByte(final byte code) {
+	final int ordinal = (code >> 4) & 0xF;
+	if (ordinal >= SUITS.length) {
+	    return NONE;
+	}
+	return indexOf(SUITS[ordinal], code & 0xF);
+    }
+
+    /**
+     * 建立索引值所代表的撲克牌物件。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回撲克牌物件
+     */
+    public static PlayingCard newCard(final int index) {
+	return new PlayingCard(suitOf(index), faceOf(index));
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private CardCode() {
+
+    }
+}
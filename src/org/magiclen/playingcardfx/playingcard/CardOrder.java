@@ -0,0 +1,295 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.playingcard;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import org.magiclen.playingcardfx.playingcard.PlayingCard.Suit;
+
+/**
+ * <p>
+ * 撲克牌的排序方式。
+ * </p>
+ * <p>
+ * 每種排序方式都預先計算好54張牌(參考CardCode)的名次表，比較兩張牌時只需要查表，也可以讓CardSorter直接以計數排序法排序。
+ * </p>
+ * <p>
+ * 實作Comparator介面，可直接用於Java內建的排序法。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardOrder implements Comparator<PlayingCard> {
+
+    // -----類別常數-----
+    /**
+     * 花色優先，A最小，鬼牌排在最前面。與PlayingCard的compareTo方法的順序相同。
+     */
+    public static final CardOrder SUIT_MAJOR = new CardOrder("SUIT_MAJOR", index -> {
+	if (index >= CardCode.SMALL_GHOST) {
+	    return index - CardCode.SMALL_GHOST;
+	}
+	return CardCode.suitOrdinalOf(index) * 100 + CardCode.faceOf(index);
+    });
+    /**
+     * 花色優先，A最大，鬼牌排在最前面。
+     */
+    public static final CardOrder SUIT_MAJOR_ACE_HIGH = new CardOrder("SUIT_MAJOR_ACE_HIGH", index -> {
+	if (index >= CardCode.SMALL_GHOST) {
+	    return index - CardCode.SMALL_GHOST;
+	}
+	return CardCode.suitOrdinalOf(index) * 100 + aceHighFace(index);
+    });
+    /**
+     * 牌值優先，A最小，同牌值時依黑桃、紅心、梅花、方塊的順序，鬼牌排在最後面。
+     */
+    public static final CardOrder RANK_MAJOR = new CardOrder("RANK_MAJOR", index -> {
+	if (index >= CardCode.SMALL_GHOST) {
+	    return 10000 + index;
+	}
+	return CardCode.faceOf(index) * 100 + CardCode.suitOrdinalOf(index);
+    });
+    /**
+     * 牌值優先，A最大，同牌值時依黑桃、紅心、梅花、方塊的順序，鬼牌排在最後面。
+     */
+    public static final CardOrder RANK_MAJOR_ACE_HIGH = new CardOrder("RANK_MAJOR_ACE_HIGH", index -> {
+	if (index >= CardCode.SMALL_GHOST) {
+	    return 10000 + index;
+	}
+	return aceHighFace(index) * 100 + CardCode.suitOrdinalOf(index);
+    });
+    /**
+     * 橋牌順序，花色由小到大為梅花、方塊、紅心、黑桃，A最大，鬼牌排在最後面。
+     */
+    public static final CardOrder BRIDGE = new CardOrder("BRIDGE", index -> {
+	if (index >= CardCode.SMALL_GHOST) {
+	    return 10000 + index;
+	}
+	return bridgeSuit(index) * 100 + aceHighFace(index);
+    });
+    /**
+     * 大老二順序，牌值由小到大為3~K、A、2，同牌值時花色由小到大為方塊、梅花、紅心、黑桃，鬼牌排在最後面。
+     */
+    public static final CardOrder BIG_TWO = new CardOrder("BIG_TWO", index -> {
+	if (index >= CardCode.SMALL_GHOST) {
+	    return 10000 + index;
+	}
+	final int face = CardCode.faceOf(index);
+	return (face <= 2 ? face + 13 : face) * 100 + bigTwoSuit(index);
+    });
+
+    // -----類別介面-----
+    /**
+     * 計算牌的排序鍵值。鍵值越小，名次越前面。
+     */
+    @FunctionalInterface
+    public static interface KeyFunction {
+
+	/**
+	 * 計算牌的排序鍵值。
+	 *
+	 * @param index 傳入牌的索引值
+	 * @return 傳回排序鍵值
+	 */
+	int key(int index);
+    }
+
+    // -----類別方法-----
+    /**
+     * 建立自訂的排序方式。
+     *
+     * @param name 傳入排序方式的名稱
+     * @param keyFunction 傳入計算牌的排序鍵值的函數，每張牌的鍵值必須不同
+     * @return 傳回排序方式
+     */
+    public static CardOrder of(final String name, final KeyFunction keyFunction) {
+	return new CardOrder(name, keyFunction);
+    }
+
+    /**
+     * 取得A最大時的牌值。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回牌值，A為14
+     */
+    private static int aceHighFace(final int index) {
+	final int face = CardCode.faceOf(index);
+	return face == 1 ? 14 : face;
+    }
+
+    /**
+     * 取得橋牌的花色順序。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回花色順序，梅花為0，方塊為1，紅心為2，黑桃為3
+     */
+    private static int bridgeSuit(final int index) {
+	switch (CardCode.suitOf(index)) {
+	    case CLUB:
+		return 0;
+	    case DIAMOND:
+		return 1;
+	    case HEART:
+		return 2;
+	    default:
+		return 3;
+	}
+    }
+
+    /**
+     * 取得大老二的花色順序。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回花色順序，方塊為0，梅花為1，紅心為2，黑桃為3
+     */
+    private static int bigTwoSuit(final int index) {
+	switch (CardCode.suitOf(index)) {
+	    case DIAMOND:
+		return 0;
+	    case CLUB:
+		return 1;
+	    case HEART:
+		return 2;
+	    default:
+		return 3;
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存排序方式的名稱。
+     */
+    private final String name;
+    /**
+     * 儲存每張牌的名次，以牌的索引值為陣列索引。
+     */
+    private final int[] ranks = new int[CardCode.COUNT];
+    /**
+     * 儲存每個名次的牌，以名次為陣列索引。
+     */
+    private final int[] indexes = new int[CardCode.COUNT];
+
+    // -----建構子-----
+    /**
+     * 建構子，計算名次表。
+     *
+     * @param name 傳入排序方式的名稱
+     * @param keyFunction 傳入計算牌的排序鍵值的函數
+     */
+    private CardOrder(final String name, final KeyFunction keyFunction) {
+	this.name = name;
+	final long[] keys = new long[CardCode.COUNT];
+	for (int i = 0; i < CardCode.COUNT; ++i) {
+	    //將鍵值放在高32位元，索引值放在低32位元，排序後即可得到每個名次的牌
+	    keys[i] = ((long) keyFunction.key(i) << 32) | i;
+	}
+	Arrays.sort(keys);
+	for (int rank = 0; rank < CardCode.COUNT; ++rank) {
+	    if (rank > 0 && (keys[rank] >> 32) == (keys[rank - 1] >> 32)) {
+		throw new IllegalArgumentException("Duplicate key in card order " + name + ": " + (keys[rank] >> 32));
+	    }
+	    final int index = (int) keys[rank];
+	    indexes[rank] = index;
+	    ranks[index] = rank;
+	}
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得牌的名次。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回名次(0~53)
+     */
+    public int rank(final int index) {
+	return ranks[index];
+    }
+
+    /**
+     * 取得撲克牌物件的名次。
+     *
+     * @param card 傳入撲克牌
+     * @return 傳回名次(0~53)
+     */
+    public int rank(final PlayingCard card) {
+	final int index = CardCode.indexOf(card);
+	if (index == CardCode.NONE) {
+	    throw new IllegalArgumentException("Unsupported card: " + card);
+	}
+	return ranks[index];
+    }
+
+    /**
+     * 取得某個名次的牌。
+     *
+     * @param rank 傳入名次(0~53)
+     * @return 傳回牌的索引值
+     */
+    public int indexAt(final int rank) {
+	return indexes[rank];
+    }
+
+    /**
+     * <p>
+     * 建立王牌花色的排序方式。
+     * </p>
+     * <p>
+     * 王牌花色的牌會排在其他所有牌(包括鬼牌)之後，王牌花色之間以及其他牌之間則保持原本的順序。
+     * </p>
+     *
+     * @param trump 傳入王牌花色
+     * @return 傳回新的排序方式
+     */
+    public CardOrder withTrump(final Suit trump) {
+	return new CardOrder(name + "/" + trump, index -> {
+	    final boolean isTrump = index < CardCode.SMALL_GHOST && CardCode.suitOf(index) == trump;
+	    return isTrump ? CardCode.COUNT + ranks[index] : ranks[index];
+	});
+    }
+
+    /**
+     * 取得排序方式的名稱。
+     *
+     * @return 傳回排序方式的名稱
+     */
+    public String getName() {
+	return name;
+    }
+
+    /**
+     * 比較兩張牌的名次。
+     *
+     * @param a 傳入第一張撲克牌
+     * @param b 傳入第二張撲克牌
+     * @return 傳回名次的差距，若第一張牌的名次在後，傳回值為正；相同，傳回零；在前，傳回負數
+     */
+    @Override
+    public int compare(final PlayingCard a, final PlayingCard b) {
+	return rank(a) - rank(b);
+    }
+
+    /**
+     * 傳回排序方式的名稱。
+     *
+     * @return 傳回排序方式的名稱
+     */
+    @Override
+    public String toString() {
+	return name;
+    }
+}
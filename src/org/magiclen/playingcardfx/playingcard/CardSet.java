@@ -0,0 +1,194 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.playingcard;
+
+import java.util.SplittableRandom;
+import org.magiclen.playingcardfx.playingcard.PlayingCard.Suit;
+
+/**
+ * <p>
+ * 以long表示的牌的集合(packed hand)。
+ * </p>
+ * <p>
+ * 第i個位元代表索引值為i的牌(參考CardCode)，一副牌的54張牌剛好可以放在一個long中。集合運算都是位元運算，不會建立物件。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardSet {
+
+    // -----類別常數-----
+    /**
+     * 空集合。
+     */
+    public static final long EMPTY = 0L;
+    /**
+     * 不含鬼牌的52張牌。
+     */
+    public static final long STANDARD_DECK = (1L << CardCode.SMALL_GHOST) - 1;
+    /**
+     * 包含鬼牌的54張牌。
+     */
+    public static final long FULL_DECK = (1L << CardCode.COUNT) - 1;
+    /**
+     * 黑桃、紅心、梅花、方塊的集合，以花色值減1為索引。
+     */
+    private static final long[] SUIT_MASKS = new long[4];
+
+    static {
+	for (int i = 0; i < 4; ++i) {
+	    SUIT_MASKS[i] = ((1L << CardCode.FACE_COUNT) - 1) << (i * CardCode.FACE_COUNT);
+	}
+    }
+
+    // -----類別方法-----
+    /**
+     * 建立包含某些牌的集合。
+     *
+     * @param indexes 傳入牌的索引值
+     * @return 傳回集合
+     */
+    public static long of(final int... indexes) {
+	long set = EMPTY;
+	for (final int index : indexes) {
+	    set |= 1L << index;
+	}
+	return set;
+    }
+
+    /**
+     * 取得某個花色所有牌的集合。
+     *
+     * @param suit 傳入花色，鬼牌傳回小鬼和大鬼
+     * @return 傳回集合
+     */
+    public static long suitMask(final Suit suit) {
+	return suit == Suit.GHOST ? FULL_DECK & ~STANDARD_DECK : SUIT_MASKS[suit.ordinal() - 1];
+    }
+
+    /**
+     * 取得某個花色值所有牌的集合。
+     *
+     * @param ordinal 傳入花色值(1~4)
+     * @return 傳回集合
+     */
+    public static long suitMask(final int ordinal) {
+	return SUIT_MASKS[ordinal - 1];
+    }
+
+    /**
+     * 判斷集合是否包含某張牌。
+     *
+     * @param set 傳入集合
+     * @param index 傳入牌的索引值
+     * @return 傳回是否包含
+     */
+    public static boolean contains(final long set, final int index) {
+	return (set & (1L << index)) != 0;
+    }
+
+    /**
+     * 在集合中加入一張牌。
+     *
+     * @param set 傳入集合
+     * @param index 傳入牌的索引值
+     * @return 傳回新的集合
+     */
+    public static long add(final long set, final int index) {
+	return set | (1L << index);
+    }
+
+    /**
+     * 從集合中移除一張牌。
+     *
+     * @param set 傳入集合
+     * @param index 傳入牌的索引值
+     * @return 傳回新的集合
+     */
+    public static long remove(final long set, final int index) {
+	return set & ~(1L << index);
+    }
+
+    /**
+     * 取得集合的張數。
+     *
+     * @param set 傳入集合
+     * @return 傳回張數
+     */
+    public static int size(final long set) {
+	return Long.bitCount(set);
+    }
+
+    /**
+     * 取得集合中索引值最小的牌。
+     *
+     * @param set 傳入集合，不可為空集合
+     * @return 傳回牌的索引值
+     */
+    public static int first(final long set) {
+	return Long.numberOfTrailingZeros(set);
+    }
+
+    /**
+     * 取得集合中第n張牌(依索引值由小到大)。
+     *
+     * @param set 傳入集合
+     * @param n 傳入第幾張(從0開始)，必須小於集合的張數
+     * @return 傳回牌的索引值
+     */
+    public static int nth(long set, int n) {
+	while (n-- > 0) {
+	    set &= set - 1; //移除最低位的1
+	}
+	return Long.numberOfTrailingZeros(set);
+    }
+
+    /**
+     * 從集合中隨機取得一張牌。
+     *
+     * @param set 傳入集合，不可為空集合
+     * @param random 傳入亂數產生器
+     * @return 傳回牌的索引值
+     */
+    public static int random(final long set, final SplittableRandom random) {
+	return nth(set, random.nextInt(Long.bitCount(set)));
+    }
+
+    /**
+     * 將集合轉成索引值陣列。
+     *
+     * @param set 傳入集合
+     * @return 傳回索引值陣列
+     */
+    public static int[] toArray(long set) {
+	final int[] indexes = new int[Long.bitCount(set)];
+	for (int i = 0; set != 0; ++i) {
+	    indexes[i] = Long.numberOfTrailingZeros(set);
+	    set &= set - 1;
+	}
+	return indexes;
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private CardSet() {
+
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.playingcard;
+
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * <p>
+ * 撲克牌排序工具類別。
+ * </p>
+ * <p>
+ * 利用CardOrder預先計算好的名次表，以計數排序法排序，時間複雜度為O(n)，不需要呼叫Comparator。
+ * </p>
+ * <p>
+ * 同一個名次可以出現多次，因此也適用於多副牌混合的牌組。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardSorter {
+
+    // -----類別方法-----
+    /**
+     * 排序以索引值表示的牌。
+     *
+     * @param indexes 傳入牌的索引值陣列
+     * @param order 傳入排序方式
+     */
+    public static void sort(final int[] indexes, final CardOrder order) {
+	sort(indexes, 0, indexes.length, order);
+    }
+
+    /**
+     * 排序以索引值表示的牌中的某個範圍。
+     *
+     * @param indexes 傳入牌的索引值陣列
+     * @param from 傳入範圍的起始位置(包含)
+     * @param to 傳入範圍的結束位置(不包含)
+     * @param order 傳入排序方式
+     */
+    public static void sort(final int[] indexes, final int from, final int to, final CardOrder order) {
+	final int[] counts = new int[CardCode.COUNT];
+	for (int i = from; i < to; ++i) {
+	    ++counts[order.rank(indexes[i])];
+	}
+	//索引值與名次是一對一的關係，因此只要依照名次把牌寫回去即可，不需要額外的暫存陣列
+	int p = from;
+	for (int rank = 0; rank < CardCode.COUNT; ++rank) {
+	    final int index = order.indexAt(rank);
+	    for (int c = counts[rank]; c > 0; --c) {
+		indexes[p++] = index;
+	    }
+	}
+    }
+
+    /**
+     * 排序以位元組編碼(參考CardCode)表示的牌。
+     *
+     * @param codes 傳入牌的位元組陣列
+     * @param order 傳入排序方式
+     * @throws IllegalArgumentException 有位元組不是合法的牌時拋出，此時陣列不會被修改
+     */
+    public static void sort(final byte[] codes, final CardOrder order) {
+	final int[] counts = new int[CardCode.COUNT];
+	for (final byte code : codes) {
+	    final int index = CardCode.fromByte(code);
+	    if (index == CardCode.NONE) {
+		throw new IllegalArgumentException(String.format("Invalid card code: 0x%02X", code & 0xFF));
+	    }
+	    ++counts[order.rank(index)];
+	}
+	int p = 0;
+	for (int rank = 0; rank < CardCode.COUNT; ++rank) {
+	    final byte code = CardCode.toByte(order.indexAt(rank));
+	    for (int c = counts[rank]; c > 0; --c) {
+		codes[p++] = code;
+	    }
+	}
+    }
+
+    /**
+     * 排序撲克牌物件，排序結果是穩定的。
+     *
+     * @param cards 傳入撲克牌陣列
+     * @param order 傳入排序方式
+     */
+    public static void sort(final PlayingCard[] cards, final CardOrder order) {
+	final int length = cards.length;
+	final int[] ranks = new int[length];
+	final int[] starts = new int[CardCode.COUNT + 1];
+	for (int i = 0; i < length; ++i) {
+	    final int rank = order.rank(cards[i]);
+	    ranks[i] = rank;
+	    ++starts[rank + 1];
+	}
+	//計算每個名次的起始位置
+	for (int rank = 0; rank < CardCode.COUNT; ++rank) {
+	    starts[rank + 1] += starts[rank];
+	}
+	final PlayingCard[] sorted = new PlayingCard[length];
+	for (int i = 0; i < length; ++i) {
+	    sorted[starts[ranks[i]]++] = cards[i];
+	}
+	System.arraycopy(sorted, 0, cards, 0, length);
+    }
+
+    /**
+     * 排序撲克牌物件的清單，排序結果是穩定的。
+     *
+     * @param cards 傳入撲克牌清單
+     * @param order 傳入排序方式
+     */
+    public static void sort(final List<PlayingCard> cards, final CardOrder order) {
+	final PlayingCard[] array = cards.toArray(new PlayingCard[cards.size()]);
+	sort(array, order);
+	final ListIterator<PlayingCard> it = cards.listIterator();
+	for (final PlayingCard card : array) {
+	    it.next();
+	    it.set(card);
+	}
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private CardSorter() {
+
+    }
+}
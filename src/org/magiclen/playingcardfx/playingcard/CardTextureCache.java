@@ -0,0 +1,463 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.playingcard;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import javafx.stage.Window;
+
+/**
+ * <p>
+ * 撲克牌圖片的快取。
+ * </p>
+ * <p>
+ * 以牌、正反面、選取狀態、尺寸、視窗的輸出倍率與主題為鍵值，同樣狀態的牌只會被繪製一次，之後所有的牌桌與視窗都共用同一張圖片，因此繪製的工作量只和不同狀態的數量有關，而和畫面上牌的數量無關。背面的圖形與是哪一張牌無關，所以所有的牌共用同一張背面圖片。
+ * </p>
+ * <p>
+ * 圖片以參考計數管理：正在被使用的圖片不會被移除；不再被使用的圖片會以最近最少使用(LRU)的順序保留，總大小超過上限時才移除最舊的圖片。
+ * </p>
+ * <p>
+ * 所有方法都可以在任何執行緒呼叫，但是繪製新的圖片必須在JavaFX Application Thread上進行。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardTextureCache {
+
+    // -----類別常數-----
+    /**
+     * 預設保留不再被使用的圖片的總大小上限(位元組)。
+     */
+    public static final long DEFAULT_MAX_IDLE_BYTES = 64L * 1024 * 1024;
+    /**
+     * 整個程式共用的快取。
+     */
+    private static final CardTextureCache DEFAULT = new CardTextureCache(DEFAULT_MAX_IDLE_BYTES);
+
+    // -----類別方法-----
+    /**
+     * 取得整個程式共用的快取。
+     *
+     * @return 傳回快取
+     */
+    public static CardTextureCache getDefault() {
+	return DEFAULT;
+    }
+
+    // -----內部類別-----
+    /**
+     * 快取的鍵值。
+     */
+    private static final class Key {
+
+	/**
+	 * 牌的索引值，背面為CardCode.NONE。
+	 */
+	private final int index;
+	/**
+	 * 是否被選取。
+	 */
+	private final boolean selected;
+	/**
+	 * 尺寸倍率。
+	 */
+	private final double sizeRate;
+	/**
+	 * 寬度。
+	 */
+	private final double width;
+	/**
+	 * 高度。
+	 */
+	private final double height;
+	/**
+	 * 輸出的縮放倍率。
+	 */
+	private final double scale;
+	/**
+	 * 主題。
+	 */
+	private final CardTheme theme;
+	/**
+	 * 快取的世代。
+	 */
+	private final int generation;
+	/**
+	 * 雜湊值。
+	 */
+	private final int hash;
+
+	/**
+	 * 建構子。
+	 *
+	 * @param index 傳入牌的索引值，背面為CardCode.NONE
+	 * @param selected 傳入是否被選取
+	 * @param sizeRate 傳入尺寸倍率
+	 * @param width 傳入寬度
+	 * @param height 傳入高度
+	 * @param scale 傳入輸出的縮放倍率
+	 * @param theme 傳入主題
+	 * @param generation 傳入快取的世代
+	 */
+	Key(final int index, final boolean selected, final double sizeRate, final double width, final double height, final double scale, final CardTheme theme, final int generation) {
+	    this.index = index;
+	    this.selected = selected;
+	    this.sizeRate = sizeRate;
+	    this.width = width;
+	    this.height = height;
+	    this.scale = scale;
+	    this.theme = theme;
+	    this.generation = generation;
+	    int h = generation * 31 + index * 2 + (selected ? 1 : 0);
+	    h = h * 31 + Double.hashCode(sizeRate);
+	    h = h * 31 + Double.hashCode(width);
+	    h = h * 31 + Double.hashCode(height);
+	    h = h * 31 + Double.hashCode(scale);
+	    hash = h * 31 + System.identityHashCode(theme);
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+	    if (this == o) {
+		return true;
+	    }
+	    if (!(o instanceof Key)) {
+		return false;
+	    }
+	    final Key key = (Key) o;
+	    return index == key.index && selected == key.selected && theme == key.theme && generation == key.generation
+		    && Double.compare(sizeRate, key.sizeRate) == 0 && Double.compare(width, key.width) == 0 && Double.compare(height, key.height) == 0
+		    && Double.compare(scale, key.scale) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+	    return hash;
+	}
+    }
+
+    /**
+     * 快取中的圖片，用完之後必須呼叫release方法。
+     */
+    public final class Texture {
+
+	/**
+	 * 鍵值。
+	 */
+	private final Key key;
+	/**
+	 * 圖片。
+	 */
+	private final Image image;
+	/**
+	 * 圖片佔用的位元組數。
+	 */
+	private final long bytes;
+	/**
+	 * 參考計數，受快取的鎖保護。
+	 */
+	private int references;
+
+	/**
+	 * 建構子。
+	 *
+	 * @param key 傳入鍵值
+	 * @param image 傳入圖片
+	 */
+	private Texture(final Key key, final Image image) {
+	    this.key = key;
+	    this.image = image;
+	    this.bytes = 4L * (long) image.getWidth() * (long) image.getHeight();
+	}
+
+	/**
+	 * 取得圖片。
+	 *
+	 * @return 傳回圖片
+	 */
+	public Image getImage() {
+	    return image;
+	}
+
+	/**
+	 * 釋放一次參考。每次acquire取得的圖片都必須釋放一次。
+	 */
+	public void release() {
+	    CardTextureCache.this.release(this);
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存所有的圖片。
+     */
+    private final HashMap<Key, Texture> textures = new HashMap<>();
+    /**
+     * 儲存不再被使用的圖片，依照最近使用的順序排列。
+     */
+    private final LinkedHashMap<Key, Texture> idle = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * 儲存繪製圖片時使用的畫布。
+     */
+    private Canvas canvas;
+    /**
+     * 儲存擷取畫布時使用的參數。
+     */
+    private SnapshotParameters parameters;
+
+    // -----物件變數-----
+    /**
+     * 儲存保留不再被使用的圖片的總大小上限(位元組)。
+     */
+    private long maxIdleBytes;
+    /**
+     * 儲存不再被使用的圖片的總大小(位元組)。
+     */
+    private long idleBytes;
+    /**
+     * 儲存所有圖片的總大小(位元組)。
+     */
+    private long totalBytes;
+    /**
+     * 儲存快取的世代，呼叫invalidate方法後會增加，之前的圖片就不會再被取得。
+     */
+    private int generation;
+    /**
+     * 儲存命中的次數。
+     */
+    private long hits;
+    /**
+     * 儲存繪製新圖片的次數。
+     */
+    private long misses;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param maxIdleBytes 傳入保留不再被使用的圖片的總大小上限(位元組)
+     */
+    public CardTextureCache(final long maxIdleBytes) {
+	setMaxIdleBytes(maxIdleBytes);
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得撲克牌目前狀態的圖片，若快取中沒有，則繪製新的圖片。
+     *
+     * @param card 傳入撲克牌，使用它的花色、牌值、選取狀態、尺寸倍率與主題
+     * @param width 傳入寬度
+     * @param height 傳入高度
+     * @param back 傳入是否為背面
+     * @return 傳回圖片，用完之後必須呼叫release方法
+     */
+    public synchronized Texture acquire(final PlayingCard card, final double width, final double height, final boolean back) {
+	final double scale = outputScale(card);
+	final Key key = new Key(back ? CardCode.NONE : CardCode.indexOf(card), card.isSelected(), card.getSizeRate(), width, height, scale, card.getTheme(), generation);
+	Texture texture = textures.get(key);
+	if (texture != null) {
+	    ++hits;
+	    if (texture.references++ == 0) {
+		idle.remove(key);
+		idleBytes -= texture.bytes;
+	    }
+	    return texture;
+	}
+	if (!Platform.isFxApplicationThread()) {
+	    throw new IllegalStateException("Card textures can only be rendered on the JavaFX Application Thread.");
+	}
+	++misses;
+	texture = new Texture(key, render(card, width, height, scale, back));
+	texture.references = 1;
+	textures.put(key, texture);
+	totalBytes += texture.bytes;
+	return texture;
+    }
+
+    /**
+     * 取得撲克牌所在視窗的輸出縮放倍率。
+     *
+     * @param card 傳入撲克牌
+     * @return 傳回縮放倍率，不在視窗中時傳回1
+     */
+    private static double outputScale(final PlayingCard card) {
+	final Scene scene = card.getScene();
+	final Window window = scene == null ? null : scene.getWindow();
+	if (window == null) {
+	    return 1;
+	}
+	return Math.max(1, Math.max(window.getOutputScaleX(), window.getOutputScaleY()));
+    }
+
+    /**
+     * 繪製圖片。
+     *
+     * @param card 傳入撲克牌
+     * @param width 傳入寬度
+     * @param height 傳入高度
+     * @param scale 傳入輸出的縮放倍率
+     * @param back 傳入是否為背面
+     * @return 傳回圖片
+     */
+    private Image render(final PlayingCard card, final double width, final double height, final double scale, final boolean back) {
+	if (canvas == null) {
+	    canvas = new Canvas();
+	    parameters = new SnapshotParameters();
+	    parameters.setFill(Color.TRANSPARENT);
+	}
+	canvas.setWidth(width);
+	canvas.setHeight(height);
+	card.draw(canvas.getGraphicsContext2D(), width, height, back);
+	//以視窗的輸出倍率擷取，高解析度的螢幕上才不會模糊
+	parameters.setTransform(Transform.scale(scale, scale));
+	final WritableImage image = new WritableImage(Math.max(1, (int) Math.ceil(width * scale)), Math.max(1, (int) Math.ceil(height * scale)));
+	return canvas.snapshot(parameters, image);
+    }
+
+    /**
+     * 釋放一次圖片的參考。
+     *
+     * @param texture 傳入圖片
+     */
+    private synchronized void release(final Texture texture) {
+	if (texture.references <= 0) {
+	    throw new IllegalStateException("Card texture released too many times.");
+	}
+	if (--texture.references == 0) {
+	    idle.put(texture.key, texture);
+	    idleBytes += texture.bytes;
+	    trim();
+	}
+    }
+
+    /**
+     * 移除最舊的不再被使用的圖片，直到總大小不超過上限。
+     */
+    private void trim() {
+	final Iterator<Map.Entry<Key, Texture>> it = idle.entrySet().iterator();
+	while (idleBytes > maxIdleBytes && it.hasNext()) {
+	    final Texture texture = it.next().getValue();
+	    it.remove();
+	    textures.remove(texture.key);
+	    idleBytes -= texture.bytes;
+	    totalBytes -= texture.bytes;
+	}
+    }
+
+    /**
+     * <p>
+     * 讓目前所有的圖片過期，例如字型載入完成之後。
+     * </p>
+     * <p>
+     * 之後取得的圖片都會重新繪製，主題快取的字型表也會一起過期(參考CardTheme.invalidateFonts())。正在被使用的圖片會在牌重繪並釋放之後才被移除。
+     * </p>
+     */
+    public synchronized void invalidate() {
+	//圖片是用主題快取的字型表繪製的，字型表也必須一起過期，重繪才會使用新的字型
+	CardTheme.invalidateFonts();
+	++generation;
+	clearIdle();
+    }
+
+    /**
+     * 移除所有不再被使用的圖片，例如切換主題之後。
+     */
+    public synchronized void clearIdle() {
+	final long max = maxIdleBytes;
+	maxIdleBytes = 0;
+	trim();
+	maxIdleBytes = max;
+    }
+
+    /**
+     * 取得保留不再被使用的圖片的總大小上限。
+     *
+     * @return 傳回總大小上限(位元組)
+     */
+    public synchronized long getMaxIdleBytes() {
+	return maxIdleBytes;
+    }
+
+    /**
+     * 設定保留不再被使用的圖片的總大小上限。
+     *
+     * @param maxIdleBytes 傳入總大小上限(位元組)
+     */
+    public synchronized void setMaxIdleBytes(final long maxIdleBytes) {
+	if (maxIdleBytes < 0) {
+	    throw new IllegalArgumentException("maxIdleBytes must not be negative: " + maxIdleBytes);
+	}
+	this.maxIdleBytes = maxIdleBytes;
+	trim();
+    }
+
+    /**
+     * 取得快取中的圖片數量。
+     *
+     * @return 傳回圖片數量
+     */
+    public synchronized int size() {
+	return textures.size();
+    }
+
+    /**
+     * 取得快取中正在被使用的圖片數量。
+     *
+     * @return 傳回圖片數量
+     */
+    public synchronized int getInUseCount() {
+	return textures.size() - idle.size();
+    }
+
+    /**
+     * 取得快取中所有圖片的總大小。
+     *
+     * @return 傳回總大小(位元組)
+     */
+    public synchronized long getTotalBytes() {
+	return totalBytes;
+    }
+
+    /**
+     * 取得命中的次數。
+     *
+     * @return 傳回命中的次數
+     */
+    public synchronized long getHitCount() {
+	return hits;
+    }
+
+    /**
+     * 取得繪製新圖片的次數。
+     *
+     * @return 傳回繪製新圖片的次數
+     */
+    public synchronized long getMissCount() {
+	return misses;
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.playingcard;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import org.magiclen.playingcardfx.playingcard.PlayingCard.Suit;
+
+/**
+ * <p>
+ * 撲克牌的主題。
+ * </p>
+ * <p>
+ * 主題在建立時就會將每個狀態(一般、被選取)要使用的顏色編譯成表格，繪製時只需要查表。字型則依照撲克牌尺寸的倍率快取，相同倍率的撲克牌會共用同一組字型。
+ * </p>
+ * <p>
+ * 主題是不可變的，可以安全地被多張撲克牌和多個執行緒共用。要修改主題，請使用Builder建立新的主題。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CardTheme {
+
+    // -----類別常數-----
+    /**
+     * 狀態：一般。
+     */
+    public static final int NORMAL = 0;
+    /**
+     * 狀態：被選取。
+     */
+    public static final int SELECTED = 1;
+    /**
+     * 字型：背面花樣。
+     */
+    static final int FONT_BACK = 0;
+    /**
+     * 字型：鬼牌圖案。
+     */
+    static final int FONT_GHOST = 1;
+    /**
+     * 字型：A的中央花色。
+     */
+    static final int FONT_ACE = 2;
+    /**
+     * 字型：2的中央花色。
+     */
+    static final int FONT_TWO = 3;
+    /**
+     * 字型：3~10的中央花色。
+     */
+    static final int FONT_NUMBER = 4;
+    /**
+     * 字型：J、Q、K的人像。
+     */
+    static final int FONT_MAN = 5;
+    /**
+     * 字型：角落的牌值與花色。
+     */
+    static final int FONT_CORNER = 6;
+    /**
+     * 每種字型相對於基準字體大小的倍率。
+     */
+    private static final double[] FONT_SCALES = {1 / 1.5, 4, 3.0, 1.8, 1.7, 1.1, 1};
+    /**
+     * 基準字體大小(尺寸倍率為1時)。
+     */
+    private static final double BASE_FONT_SIZE = 48;
+    /**
+     * 每個主題最多快取幾種尺寸倍率的字型。
+     */
+    private static final int MAX_CACHED_SIZES = 64;
+    /**
+     * 預設的字型。
+     */
+    public static final String DEFAULT_FONT_FAMILY = "Noto Sans CJK TC Regular";
+    /**
+     * 經典主題，與原本的撲克牌相同。
+     */
+    public static final CardTheme CLASSIC = new Builder().build();
+    /**
+     * 四色主題，黑桃為黑色、紅心為紅色、梅花為綠色、方塊為藍色。
+     */
+    public static final CardTheme FOUR_COLOR = new Builder()
+	    .setSuit(Suit.CLUB, Color.rgb(0, 128, 0), Color.LIGHTGREEN)
+	    .setSuit(Suit.DIAMOND, Color.rgb(0, 64, 200), Color.LIGHTSKYBLUE)
+	    .build();
+    /**
+     * 高對比主題，使用純色與粗體字。
+     */
+    public static final CardTheme HIGH_CONTRAST = new Builder()
+	    .setBackground(Color.WHITE, Color.BLACK)
+	    .setBackPattern(Color.BLACK, Color.YELLOW)
+	    .setGhost(Color.BLACK, Color.YELLOW)
+	    .setSuit(Suit.SPADE, Color.BLACK, Color.WHITE)
+	    .setSuit(Suit.CLUB, Color.BLACK, Color.WHITE)
+	    .setSuit(Suit.HEART, Color.RED, Color.YELLOW)
+	    .setSuit(Suit.DIAMOND, Color.RED, Color.YELLOW)
+	    .setFontWeight(FontWeight.BOLD)
+	    .build();
+
+    // -----類別變數-----
+    /**
+     * 字型世代，呼叫invalidateFonts方法後會增加，所有主題快取的字型表都會過期。
+     */
+    private static volatile int fontGeneration;
+
+    // -----類別方法-----
+    /**
+     * <p>
+     * 讓所有主題快取的字型表過期。
+     * </p>
+     * <p>
+     * 字型在背景執行緒載入完成之前所建立的字型表會使用系統預設的字型，載入完成後必須呼叫此方法，之後繪製的撲克牌才會使用新的字型。
+     * </p>
+     */
+    public static void invalidateFonts() {
+	++fontGeneration;
+    }
+
+    // -----內部類別-----
+    /**
+     * 用來建立主題的類別。
+     */
+    public static final class Builder {
+
+	/**
+	 * 背景顏色。
+	 */
+	private final Paint[] background = {Color.WHITE, Color.BLACK};
+	/**
+	 * 背面花樣顏色。
+	 */
+	private final Paint[] backPattern = {Color.color(0.75, 0, 0), Color.color(0.2, 1, 1)};
+	/**
+	 * 鬼牌顏色。
+	 */
+	private final Paint[] ghost = {Color.ORANGERED, Color.color(0, 0.7, 1)};
+	/**
+	 * 各花色的顏色，以花色值為索引。
+	 */
+	private final Paint[][] suits = {
+	    ghost,
+	    {Color.BLACK, Color.WHITE},
+	    {Color.color(0.75, 0, 0), Color.color(0.2, 1, 1)},
+	    {Color.BLACK, Color.WHITE},
+	    {Color.color(0.75, 0, 0), Color.color(0.2, 1, 1)}
+	};
+	/**
+	 * 背面花樣文字。
+	 */
+	private String backGlyph = "♦";
+	/**
+	 * 字型。
+	 */
+	private String fontFamily = DEFAULT_FONT_FAMILY;
+	/**
+	 * 字型粗細。
+	 */
+	private FontWeight fontWeight = FontWeight.NORMAL;
+
+	/**
+	 * 建構子，以經典主題為基礎。
+	 */
+	public Builder() {
+
+	}
+
+	/**
+	 * 建構子，以某個主題為基礎。
+	 *
+	 * @param theme 傳入主題
+	 */
+	public Builder(final CardTheme theme) {
+	    System.arraycopy(theme.background, 0, background, 0, 2);
+	    System.arraycopy(theme.backPattern, 0, backPattern, 0, 2);
+	    System.arraycopy(theme.ghost, 0, ghost, 0, 2);
+	    for (int i = 1; i < suits.length; ++i) {
+		suits[i] = theme.suits[i].clone();
+	    }
+	    backGlyph = theme.backGlyph;
+	    fontFamily = theme.fontFamily;
+	    fontWeight = theme.fontWeight;
+	}
+
+	/**
+	 * 設定背景顏色。
+	 *
+	 * @param normal 傳入一般狀態的顏色
+	 * @param selected 傳入被選取時的顏色
+	 * @return 傳回Builder本身
+	 */
+	public Builder setBackground(final Paint normal, final Paint selected) {
+	    background[NORMAL] = normal;
+	    background[SELECTED] = selected;
+	    return this;
+	}
+
+	/**
+	 * 設定背面花樣的顏色。
+	 *
+	 * @param normal 傳入一般狀態的顏色
+	 * @param selected 傳入被選取時的顏色
+	 * @return 傳回Builder本身
+	 */
+	public Builder setBackPattern(final Paint normal, final Paint selected) {
+	    backPattern[NORMAL] = normal;
+	    backPattern[SELECTED] = selected;
+	    return this;
+	}
+
+	/**
+	 * 設定背面花樣的文字。
+	 *
+	 * @param backGlyph 傳入背面花樣的文字
+	 * @return 傳回Builder本身
+	 */
+	public Builder setBackGlyph(final String backGlyph) {
+	    this.backGlyph = backGlyph;
+	    return this;
+	}
+
+	/**
+	 * 設定鬼牌的顏色。
+	 *
+	 * @param normal 傳入一般狀態的顏色
+	 * @param selected 傳入被選取時的顏色
+	 * @return 傳回Builder本身
+	 */
+	public Builder setGhost(final Paint normal, final Paint selected) {
+	    ghost[NORMAL] = normal;
+	    ghost[SELECTED] = selected;
+	    return this;
+	}
+
+	/**
+	 * 設定某個花色的顏色。
+	 *
+	 * @param suit 傳入花色
+	 * @param normal 傳入一般狀態的顏色
+	 * @param selected 傳入被選取時的顏色
+	 * @return 傳回Builder本身
+	 */
+	public Builder setSuit(final Suit suit, final Paint normal, final Paint selected) {
+	    if (suit == Suit.GHOST) {
+		return setGhost(normal, selected);
+	    }
+	    suits[suit.ordinal()] = new Paint[]{normal, selected};
+	    return this;
+	}
+
+	/**
+	 * 設定字型。
+	 *
+	 * @param fontFamily 傳入字型名稱
+	 * @return 傳回Builder本身
+	 */
+	public Builder setFontFamily(final String fontFamily) {
+	    this.fontFamily = fontFamily;
+	    return this;
+	}
+
+	/**
+	 * 設定字型粗細。
+	 *
+	 * @param fontWeight 傳入字型粗細
+	 * @return 傳回Builder本身
+	 */
+	public Builder setFontWeight(final FontWeight fontWeight) {
+	    this.fontWeight = fontWeight;
+	    return this;
+	}
+
+	/**
+	 * 建立主題。
+	 *
+	 * @return 傳回主題
+	 */
+	public CardTheme build() {
+	    return new CardTheme(this);
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存背景顏色，以狀態為索引。
+     */
+    private final Paint[] background;
+    /**
+     * 儲存背面花樣顏色，以狀態為索引。
+     */
+    private final Paint[] backPattern;
+    /**
+     * 儲存鬼牌顏色，以狀態為索引。
+     */
+    private final Paint[] ghost;
+    /**
+     * 儲存各花色的顏色，以花色值和狀態為索引。
+     */
+    private final Paint[][] suits;
+    /**
+     * 儲存背面花樣文字。
+     */
+    private final String backGlyph;
+    /**
+     * 儲存字型名稱。
+     */
+    private final String fontFamily;
+    /**
+     * 儲存字型粗細。
+     */
+    private final FontWeight fontWeight;
+    /**
+     * 儲存快取的字型表的尺寸倍率(Double.doubleToLongBits的結果)，受this的鎖保護。
+     */
+    private final long[] fontKeys = new long[MAX_CACHED_SIZES];
+    /**
+     * 儲存依尺寸倍率快取的字型表，與fontKeys對應，受this的鎖保護。
+     */
+    private final Font[][] fonts = new Font[MAX_CACHED_SIZES][];
+
+    // -----物件變數-----
+    /**
+     * 儲存快取的字型表數量，受this的鎖保護。
+     */
+    private int fontCount;
+    /**
+     * 儲存快取的字型表是在哪一個字型世代建立的，受this的鎖保護。
+     */
+    private int fontCacheGeneration;
+
+    // -----建構子-----
+    /**
+     * 建構子，將Builder的設定編譯成表格。
+     *
+     * @param builder 傳入Builder
+     */
+    private CardTheme(final Builder builder) {
+	background = builder.background.clone();
+	backPattern = builder.backPattern.clone();
+	ghost = builder.ghost.clone();
+	suits = new Paint[builder.suits.length][];
+	suits[0] = ghost;
+	for (int i = 1; i < suits.length; ++i) {
+	    suits[i] = builder.suits[i].clone();
+	}
+	backGlyph = builder.backGlyph;
+	fontFamily = builder.fontFamily;
+	fontWeight = builder.fontWeight;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得背景顏色。
+     *
+     * @param state 傳入狀態
+     * @return 傳回背景顏色
+     */
+    public Paint getBackground(final int state) {
+	return background[state];
+    }
+
+    /**
+     * 取得背面花樣顏色。
+     *
+     * @param state 傳入狀態
+     * @return 傳回背面花樣顏色
+     */
+    public Paint getBackPattern(final int state) {
+	return backPattern[state];
+    }
+
+    /**
+     * 取得花色的顏色，鬼牌傳回鬼牌的顏色。
+     *
+     * @param suit 傳入花色
+     * @param state 傳入狀態
+     * @return 傳回花色的顏色
+     */
+    public Paint getSuit(final Suit suit, final int state) {
+	return suits[suit.ordinal()][state];
+    }
+
+    /**
+     * 取得背面花樣文字。
+     *
+     * @return 傳回背面花樣文字
+     */
+    public String getBackGlyph() {
+	return backGlyph;
+    }
+
+    /**
+     * 取得字型名稱。
+     *
+     * @return 傳回字型名稱
+     */
+    public String getFontFamily() {
+	return fontFamily;
+    }
+
+    /**
+     * 取得某個尺寸倍率要使用的字型表，以FONT_開頭的常數為索引。
+     *
+     * @param sizeRate 傳入尺寸倍率
+     * @return 傳回字型表，不可修改
+     */
+    synchronized Font[] getFonts(final double sizeRate) {
+	final int generation = fontGeneration;
+	if (fontCacheGeneration != generation) {
+	    fontCacheGeneration = generation;
+	    fontCount = 0;
+	}
+	//以基本型態的陣列查表，避免每次繪製都將尺寸倍率包裝成Double
+	final long key = Double.doubleToLongBits(sizeRate);
+	for (int i = 0; i < fontCount; ++i) {
+	    if (fontKeys[i] == key) {
+		return fonts[i];
+	    }
+	}
+	if (fontCount >= MAX_CACHED_SIZES) {
+	    fontCount = 0;
+	}
+	final Font[] created = new Font[FONT_SCALES.length];
+	for (int i = 0; i < created.length; ++i) {
+	    created[i] = Font.font(fontFamily, fontWeight, BASE_FONT_SIZE * sizeRate * FONT_SCALES[i]);
+	}
+	fontKeys[fontCount] = key;
+	fonts[fontCount++] = created;
+	return created;
+    }
+}
@@ -19,10 +19,12 @@ package org.magiclen.playingcardfx.playingcard;
 
 import java.time.LocalTime;
 import javafx.beans.InvalidationListener;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.Region;
-import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.transform.Affine;
 
@@ -72,10 +74,6 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
      * 牌值文字。
      */
     private static final String[] FACES = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
-    /**
-     * 字型。
-     */
-    private static final String FONT_FAMILY = "Noto Sans CJK TC Regular";
 
     // -----類別方法-----
     /**
@@ -110,6 +108,21 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
 	return sb.toString(); //傳回暫存的字串。
     }
 
+    /**
+     * 傳回某張牌所代表的字串，與toString()的結果相同，但不需要建立撲克牌物件。
+     *
+     * @param suit 傳入牌的花色
+     * @param face 傳入牌值
+     * @return 傳回牌所代表的字串
+     */
+    public static String toString(final Suit suit, final int face) {
+	if (suit == Suit.GHOST) {
+	    return SUITS[suit.ordinal()];
+	} else {
+	    return SUITS[suit.ordinal()] + FACES[face - 1];
+	}
+    }
+
     // -----物件常數-----
     /**
      * 儲存牌的畫布。
@@ -123,6 +136,10 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
      * 儲存重新繪製畫布的監聽者。
      */
     private final InvalidationListener refreshCanvasListener = e -> resetCanvas();
+    /**
+     * 儲存牌的主題，改變時會重繪畫布。
+     */
+    private final ObjectProperty<CardTheme> theme = new SimpleObjectProperty<>(this, "theme", CardTheme.CLASSIC);
 
     // -----物件變數-----
     /**
@@ -145,6 +162,34 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
      * 儲存牌是否顯示背面。
      */
     private boolean back = false;
+    /**
+     * 儲存翻牌時使用的另一張畫布，第一次翻牌時才建立。
+     */
+    private Canvas flipCanvas;
+    /**
+     * 儲存主要畫布上畫的是否為背面。
+     */
+    private boolean canvasBack = false;
+    /**
+     * 儲存另一張畫布上畫的是否為背面。
+     */
+    private boolean flipCanvasBack = false;
+    /**
+     * 儲存另一張畫布上的圖形是否可以使用。
+     */
+    private boolean flipCanvasValid = false;
+    /**
+     * 儲存共用的圖片快取，為null時使用自己的畫布繪製。
+     */
+    private CardTextureCache textureCache;
+    /**
+     * 儲存從快取取得的圖片。
+     */
+    private CardTextureCache.Texture texture;
+    /**
+     * 儲存顯示快取圖片的ImageView，使用快取時才建立。
+     */
+    private ImageView imageView;
 
     // -----建構子-----
     /**
@@ -206,6 +251,13 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
 
 	canvas.widthProperty().addListener(refreshCanvasListener);
 	canvas.heightProperty().addListener(refreshCanvasListener);
+	theme.addListener(refreshCanvasListener);
+	sceneProperty().addListener(e -> {
+	    //使用快取時，牌離開場景就釋放圖片，回到場景再重新取得
+	    if (textureCache != null) {
+		updateTexture();
+	    }
+	});
 
 	getChildren().add(canvas); //將畫紙加入牌中(貼到牌上)
     }
@@ -256,6 +308,89 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
 	setPrefSize(297 * sizeRate, 421 * sizeRate); //將基準長寬乘上比例後，設定牌的尺寸大小
     }
 
+    /**
+     * 取得牌的尺寸比例。
+     *
+     * @return 傳回尺寸比例
+     */
+    double getSizeRate() {
+	return sizeRate;
+    }
+
+    /**
+     * 取得牌所使用的圖片快取。
+     *
+     * @return 傳回圖片快取，若使用自己的畫布繪製，傳回null
+     */
+    public CardTextureCache getTextureCache() {
+	return textureCache;
+    }
+
+    /**
+     * <p>
+     * 設定牌所使用的圖片快取。
+     * </p>
+     * <p>
+     * 大量顯示牌的時候(例如同時顯示多張牌桌的多個視窗)，讓所有的牌共用同一個快取，例如CardTextureCache.getDefault()，同樣狀態的牌就只需要繪製一次。設為null則改回使用自己的畫布繪製。
+     * </p>
+     *
+     * @param textureCache 傳入圖片快取
+     */
+    public void setTextureCache(final CardTextureCache textureCache) {
+	if (this.textureCache == textureCache) {
+	    return;
+	}
+	if (texture != null) {
+	    texture.release();
+	    texture = null;
+	}
+	this.textureCache = textureCache;
+	if (textureCache == null) {
+	    imageView.setImage(null);
+	    imageView.setVisible(false);
+	    resetCanvas();
+	} else {
+	    if (imageView == null) {
+		imageView = new ImageView();
+		imageView.setManaged(false);
+		getChildren().add(imageView);
+	    }
+	    updateTexture();
+	}
+    }
+
+    /**
+     * <p>
+     * 取得牌的主題屬性。
+     * </p>
+     * <p>
+     * 將整張牌桌的牌都綁定到同一個主題屬性，切換主題時每張牌只會重繪一次。
+     * </p>
+     *
+     * @return 傳回牌的主題屬性
+     */
+    public ObjectProperty<CardTheme> themeProperty() {
+	return theme;
+    }
+
+    /**
+     * 取得牌的主題。
+     *
+     * @return 傳回牌的主題
+     */
+    public CardTheme getTheme() {
+	return theme.get();
+    }
+
+    /**
+     * 設定牌的主題，並重繪畫布。
+     *
+     * @param theme 傳入牌的主題
+     */
+    public void setTheme(final CardTheme theme) {
+	this.theme.set(theme);
+    }
+
     /**
      * 判斷牌是否為鬼牌。
      *
@@ -428,189 +563,284 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
      * 重繪畫布。
      */
     public void resetCanvas() {
-	final double width = canvas.getWidth();  //取得寬度
-	final double height = canvas.getHeight();  //取得高度
+	if (textureCache != null) {
+	    updateTexture();
+	    return;
+	}
+	draw(gc, canvas.getWidth(), canvas.getHeight(), back);
+	canvasBack = back;
+	flipCanvasValid = false;
+	showCanvas(canvas);
+    }
+
+    /**
+     * <p>
+     * 翻牌，切換牌是否顯示背面。
+     * </p>
+     * <p>
+     * 正面與背面的圖形會分別保存在兩張畫布上，第一次翻牌時才會繪製另一面，之後再翻牌只需切換顯示的畫布，不需要重繪。呼叫resetCanvas()後，另一面的圖形會被視為過期。
+     * </p>
+     */
+    public void flip() {
+	back = !back;
+	if (textureCache != null) {
+	    updateTexture();
+	    return;
+	}
+	if (canvasBack == back) {
+	    showCanvas(canvas);
+	    return;
+	}
+	if (flipCanvas == null) {
+	    flipCanvas = new Canvas();
+	    flipCanvas.widthProperty().bind(this.widthProperty());
+	    flipCanvas.heightProperty().bind(this.heightProperty());
+	    flipCanvas.setVisible(false);
+	    getChildren().add(flipCanvas);
+	}
+	if (!flipCanvasValid || flipCanvasBack != back) {
+	    draw(flipCanvas.getGraphicsContext2D(), canvas.getWidth(), canvas.getHeight(), back);
+	    flipCanvasBack = back;
+	    flipCanvasValid = true;
+	}
+	showCanvas(flipCanvas);
+    }
+
+    /**
+     * 只顯示其中一張畫布。
+     *
+     * @param shown 傳入要顯示的畫布，為null時不顯示任何畫布
+     */
+    private void showCanvas(final Canvas shown) {
+	canvas.setVisible(shown == canvas);
+	if (flipCanvas != null) {
+	    flipCanvas.setVisible(shown == flipCanvas);
+	}
+	if (imageView != null) {
+	    imageView.setVisible(shown == null);
+	}
+    }
+
+    /**
+     * 從快取取得目前狀態的圖片。先取得新的圖片再釋放舊的，狀態沒有改變時不會被移出快取。
+     */
+    private void updateTexture() {
+	final CardTextureCache.Texture old = texture;
+	final double width = canvas.getWidth(), height = canvas.getHeight();
+	if (getScene() == null || width <= 0 || height <= 0) {
+	    texture = null;
+	} else {
+	    texture = textureCache.acquire(this, width, height, back);
+	}
+	if (old != null) {
+	    old.release();
+	}
+	imageView.setImage(texture == null ? null : texture.getImage());
+	//圖片可能以高於1的輸出倍率繪製，顯示時縮回牌的大小
+	imageView.setFitWidth(width);
+	imageView.setFitHeight(height);
+	showCanvas(null);
+    }
+
+    /**
+     * 將牌繪製在畫布上。
+     *
+     * @param g 傳入畫布內容
+     * @param width 傳入寬度
+     * @param height 傳入高度
+     * @param showBack 傳入是否繪製背面
+     */
+    void draw(final GraphicsContext g, final double width, final double height, final boolean showBack) {
 	double fontsize = 48 * sizeRate; //設定字體大小
+	final CardTheme theme = getTheme();
+	final Font[] fonts = theme.getFonts(sizeRate);
+	final int state = isSelected() ? CardTheme.SELECTED : CardTheme.NORMAL;
 
 	//畫背景
-	gc.setFill(isSelected() ? Color.BLACK : Color.WHITE);
-	gc.fillRect(0, 0, width, height);
+	g.setFill(theme.getBackground(state));
+	g.fillRect(0, 0, width, height);
 
-	if (isBack()) {
+	if (showBack) {
 	    fontsize /= 1.5;
 	    double imgsize = fontsize * 0.9; //計算花樣估計大小
 	    boolean align = true;
 	    final int w = (int) Math.ceil(imgsize * 1.2);
 	    final int h = (int) Math.ceil(imgsize * 0.6);
-	    gc.setFill(isSelected() ? Color.color(0.2, 1, 1) : Color.color(0.75, 0, 0));
-	    gc.setFont(Font.font(FONT_FAMILY, fontsize));
+	    final String backGlyph = theme.getBackGlyph();
+	    g.setFill(theme.getBackPattern(state));
+	    g.setFont(fonts[CardTheme.FONT_BACK]);
 	    for (int i = -h; i <= height + (2 * h); i += h) {
 		if (align) {
 		    for (int j = 0; j <= width; j += w) {
-			gc.fillText("♦", j, i);
+			g.fillText(backGlyph, j, i);
 		    }
 		} else {
 		    for (int j = -(w / 2); j <= width; j += w) {
-			gc.fillText("♦", j, i);
+			g.fillText(backGlyph, j, i);
 		    }
 		}
 		align = !align;
 	    }
 	} else {
 	    // 畫中心線
-//	    gc.strokeLine(0, height / 2, width, height / 2);
-//	    gc.strokeLine(width / 2, 0, width / 2, height);
+//	    g.strokeLine(0, height / 2, width, height / 2);
+//	    g.strokeLine(width / 2, 0, width / 2, height);
 	    if (isGhost()) { // 如果是鬼牌
 		final double fontSizeG = fontsize * 4;
 		final double halfFontSizeG = fontSizeG / 2;
-		gc.setFont(Font.font(FONT_FAMILY, fontSizeG));
-		gc.setFill(isSelected() ? Color.color(0, 0.7, 1) : Color.ORANGERED);
-		gc.fillText(getSuitStringImg(), 149 * sizeRate - halfFontSizeG, 175 * sizeRate + halfFontSizeG);
+		g.setFont(fonts[CardTheme.FONT_GHOST]);
+		g.setFill(theme.getSuit(Suit.GHOST, state));
+		g.fillText(getSuitStringImg(), 149 * sizeRate - halfFontSizeG, 175 * sizeRate + halfFontSizeG);
 	    } else { //如果不是鬼牌
-		gc.setFill(isRed() ? isSelected() ? Color.color(0.2, 1, 1) : Color.color(0.75, 0, 0) : isSelected() ? Color.WHITE : Color.BLACK);
+		g.setFill(theme.getSuit(getSuit(), state));
 		final double fontsize_c; //花樣文字大小
+		final Font font_c; //花樣文字字型
 		// ---繪製撲克牌---
 		double a = 19 * sizeRate, b = fontsize, c = 9 * sizeRate, d = fontsize * 2;
 		//設定花樣文字大小
 		if (getFace() == 1) {
 		    fontsize_c = fontsize * 3.0;
+		    font_c = fonts[CardTheme.FONT_ACE];
 		} else if (getFace() == 2) {
 		    fontsize_c = fontsize * 1.8;
+		    font_c = fonts[CardTheme.FONT_TWO];
 		} else if (getFace() <= 10) {
 		    fontsize_c = fontsize * 1.7;
+		    font_c = fonts[CardTheme.FONT_NUMBER];
 		} else {
 		    fontsize_c = fontsize * 1.1;
+		    font_c = fonts[CardTheme.FONT_MAN];
 		}
 		final double imgsize = fontsize_c * 0.5; //計算半花樣估計大小
 		final String suitStringImg = getSuitStringImg();
-		gc.setFont(Font.font(FONT_FAMILY, fontsize_c));
+		g.setFont(font_c);
 		switch (getFace()) {
 		    case 1:
 			a = 18 * sizeRate;
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 187 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 187 * sizeRate + imgsize);
 			break;
 		    case 2:
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 80 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 80 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 80 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 80 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 3:
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 4:
 			a = (int) Math.ceil(16 * sizeRate);
 
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 5:
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 6:
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 7:
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 135 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 135 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 8:
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 135 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 135 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 70 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 135 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 135 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 70 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 9:
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 50 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 50 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 150 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 150 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 200 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 50 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 50 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 150 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 150 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 200 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 10:
 			a = sizeRate;
 
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 50 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 50 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize, 150 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize, 150 * sizeRate + imgsize);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize, 100 * sizeRate + imgsize);
-			inverseGraphics();
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 100 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
-			gc.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
-			inverseGraphics();
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 50 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 50 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize, 150 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize, 150 * sizeRate + imgsize);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize, 100 * sizeRate + imgsize);
+			inverseGraphics(g);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 50 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 149 * sizeRate - imgsize - width, 100 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 205 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
+			g.fillText(suitStringImg, 93 * sizeRate - imgsize - width, 150 * sizeRate + imgsize - height);
+			inverseGraphics(g);
 			break;
 		    case 11:
-			gc.fillText("　　●", 42 * sizeRate - imgsize, 175 * sizeRate - imgsize);
-			gc.fillText("　＜█＞", 42 * sizeRate - imgsize, 252 * sizeRate - imgsize);
-			gc.fillText("　／　＼", 42 * sizeRate - imgsize, 329 * sizeRate - imgsize);
+			g.fillText("　　●", 42 * sizeRate - imgsize, 175 * sizeRate - imgsize);
+			g.fillText("　＜█＞", 42 * sizeRate - imgsize, 252 * sizeRate - imgsize);
+			g.fillText("　／　＼", 42 * sizeRate - imgsize, 329 * sizeRate - imgsize);
 			break;
 		    case 12:
 			a = 15 * sizeRate;
 
-			gc.fillText("　●／", 95 * sizeRate - imgsize, 175 * sizeRate - imgsize);
-			gc.fillText("＜█", 95 * sizeRate - imgsize, 252 * sizeRate - imgsize);
-			gc.fillText("／　＼", 95 * sizeRate - imgsize, 329 * sizeRate - imgsize);
+			g.fillText("　●／", 95 * sizeRate - imgsize, 175 * sizeRate - imgsize);
+			g.fillText("＜█", 95 * sizeRate - imgsize, 252 * sizeRate - imgsize);
+			g.fillText("／　＼", 95 * sizeRate - imgsize, 329 * sizeRate - imgsize);
 			break;
 		    case 13:
 			a = 16 * sizeRate;
 
-			gc.fillText("＼●", 95 * sizeRate - imgsize, 175 * sizeRate - imgsize);
-			gc.fillText("　█＞", 95 * sizeRate - imgsize, 252 * sizeRate - imgsize);
-			gc.fillText("／　）", 95 * sizeRate - imgsize, 329 * sizeRate - imgsize);
+			g.fillText("＼●", 95 * sizeRate - imgsize, 175 * sizeRate - imgsize);
+			g.fillText("　█＞", 95 * sizeRate - imgsize, 252 * sizeRate - imgsize);
+			g.fillText("／　）", 95 * sizeRate - imgsize, 329 * sizeRate - imgsize);
 			break;
 		}
 		final String faceString = getFaceString();
-		gc.setFont(Font.font(FONT_FAMILY, fontsize));
-		gc.fillText(faceString, a, b);
-		gc.fillText(suitStringImg, c, d);
-		inverseGraphics();
-		gc.fillText(faceString, a - width, b - height);
-		gc.fillText(suitStringImg, c - width, d - height);
-		inverseGraphics();
+		g.setFont(fonts[CardTheme.FONT_CORNER]);
+		g.fillText(faceString, a, b);
+		g.fillText(suitStringImg, c, d);
+		inverseGraphics(g);
+		g.fillText(faceString, a - width, b - height);
+		g.fillText(suitStringImg, c - width, d - height);
+		inverseGraphics(g);
 	    }
 	}
 
@@ -618,11 +848,13 @@ public class PlayingCard extends Region implements Comparable<PlayingCard> {
 
     /**
      * 旋轉畫布。
+     *
+     * @param g 傳入畫布內容
      */
-    private void inverseGraphics() {
-	final Affine at = gc.getTransform().clone(); //取得畫布的仿射轉換物件
+    private void inverseGraphics(final GraphicsContext g) {
+	final Affine at = g.getTransform().clone(); //取得畫布的仿射轉換物件
 	at.appendRotation(180); //旋轉180度
-	gc.setTransform(at); //將設定過後的仿射轉換物件傳回給畫布
+	g.setTransform(at); //將設定過後的仿射轉換物件傳回給畫布
     }
 
     /**
@@ -0,0 +1,101 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.record;
+
+/**
+ * <p>
+ * 遊戲紀錄的二進位格式定義。
+ * </p>
+ * <p>
+ * 檔案開頭為8個位元組的標頭(4個位元組的魔術字串"PCFX"、1個位元組的版本號碼和3個保留位元組)，之後依序存放紀錄。每筆紀錄的第一個位元組為紀錄類型，多位元組的數值皆為大端序。
+ * </p>
+ * <ul>
+ * <li>HAND_START：8個位元組的牌局編號。</li>
+ * <li>SHUFFLE：2個位元組的張數，之後每張牌1個位元組。</li>
+ * <li>DEAL：1個位元組的玩家編號、1個位元組的張數，之後每張牌1個位元組。</li>
+ * <li>ACTION：1個位元組的玩家編號、1個位元組的動作代碼、4個位元組的動作數值。</li>
+ * </ul>
+ * <p>
+ * 每張牌以CardCode的位元組編碼儲存。紀錄類型為0時代表資料結束，因此檔案尾端預先配置但尚未使用的空間會被當成結尾。
+ * </p>
+ * <p>
+ * 索引檔與紀錄檔同名，多加上".idx"副檔名，依序存放每個牌局開始的位置(8個位元組)。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class GameRecord {
+
+    // -----類別常數-----
+    /**
+     * 魔術字串。
+     */
+    static final byte[] MAGIC = {'P', 'C', 'F', 'X'};
+    /**
+     * 格式版本號碼。
+     */
+    public static final int VERSION = 1;
+    /**
+     * 標頭大小。
+     */
+    static final int HEADER_SIZE = 8;
+    /**
+     * 索引檔的副檔名。
+     */
+    public static final String INDEX_SUFFIX = ".idx";
+    /**
+     * 紀錄類型：資料結束。
+     */
+    public static final byte END = 0;
+    /**
+     * 紀錄類型：牌局開始。
+     */
+    public static final byte HAND_START = 1;
+    /**
+     * 紀錄類型：洗牌。
+     */
+    public static final byte SHUFFLE = 2;
+    /**
+     * 紀錄類型：發牌。
+     */
+    public static final byte DEAL = 3;
+    /**
+     * 紀錄類型：玩家動作。
+     */
+    public static final byte ACTION = 4;
+    /**
+     * 一筆洗牌紀錄最多可以存放的張數。
+     */
+    public static final int MAX_SHUFFLE_CARDS = 0xFFFF;
+    /**
+     * 一筆發牌紀錄最多可以存放的張數。
+     */
+    public static final int MAX_DEAL_CARDS = 0xFF;
+    /**
+     * 玩家編號的最大值。
+     */
+    public static final int MAX_PLAYER = 0xFF;
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private GameRecord() {
+
+    }
+}
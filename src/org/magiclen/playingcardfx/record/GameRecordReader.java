@@ -0,0 +1,351 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * 遊戲紀錄讀取器。
+ * </p>
+ * <p>
+ * 以唯讀的方式映射紀錄檔，依序將紀錄交給RecordHandler處理。重播過程中不會為每筆紀錄建立物件，牌的資料放在重複使用的陣列中。
+ * </p>
+ * <p>
+ * 若索引檔存在，會直接映射索引檔來跳到指定的牌局；索引檔不存在或缺少最後幾個牌局(例如寫入到一半時中斷)，會在開啟時掃描紀錄檔補上缺少的部分。
+ * </p>
+ * <p>
+ * 此類別不是執行緒安全的，多個執行緒要同時讀取時，請各自開啟讀取器。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class GameRecordReader implements Closeable {
+
+    // -----類別方法-----
+    /**
+     * 開啟遊戲紀錄檔案。
+     *
+     * @param path 傳入紀錄檔的路徑
+     * @return 傳回遊戲紀錄讀取器
+     * @throws IOException 開啟失敗或檔案格式不正確時拋出
+     */
+    public static GameRecordReader open(final Path path) throws IOException {
+	return new GameRecordReader(path, path.resolveSibling(path.getFileName() + GameRecord.INDEX_SUFFIX));
+    }
+
+    /**
+     * 唯讀映射檔案。
+     *
+     * @param path 傳入檔案路徑
+     * @return 傳回映射的緩衝區
+     * @throws IOException 映射失敗或檔案過大時拋出
+     */
+    private static MappedByteBuffer map(final Path path) throws IOException {
+	try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+	    final long size = channel.size();
+	    if (size > Integer.MAX_VALUE) {
+		throw new IOException("Game record is too large: " + path);
+	    }
+	    return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存紀錄檔的緩衝區。
+     */
+    private final MappedByteBuffer buffer;
+    /**
+     * 儲存每個牌局開始的位置。
+     */
+    private final LongBuffer index;
+    /**
+     * 儲存牌局數量。
+     */
+    private final int handCount;
+    /**
+     * 儲存索引檔中有效的牌局數量。
+     */
+    private final int indexedCount;
+    /**
+     * 儲存資料結尾的位置。
+     */
+    private final int end;
+    /**
+     * 重複使用的牌陣列。
+     */
+    private final byte[] cards = new byte[GameRecord.MAX_SHUFFLE_CARDS];
+
+    // -----建構子-----
+    /**
+     * 建構子，映射紀錄檔與索引檔。
+     *
+     * @param path 傳入紀錄檔的路徑
+     * @param indexPath 傳入索引檔的路徑
+     * @throws IOException 開啟失敗或檔案格式不正確時拋出
+     */
+    private GameRecordReader(final Path path, final Path indexPath) throws IOException {
+	buffer = map(path);
+	final int size = buffer.capacity();
+	if (size < GameRecord.HEADER_SIZE) {
+	    throw new IOException("Invalid game record header: " + path);
+	}
+	for (int i = 0; i < GameRecord.MAGIC.length; ++i) {
+	    if (buffer.get(i) != GameRecord.MAGIC[i]) {
+		throw new IOException("Invalid game record header: " + path);
+	    }
+	}
+	if (buffer.get(GameRecord.MAGIC.length) != GameRecord.VERSION) {
+	    throw new IOException("Unsupported game record version: " + buffer.get(GameRecord.MAGIC.length));
+	}
+
+	LongBuffer mapped = null;
+	int indexed = 0;
+	if (Files.exists(indexPath)) {
+	    mapped = map(indexPath).asLongBuffer();
+	    //索引尾端可能有尚未使用的空間(全為0)，或是寫入到一半的資料
+	    final int limit = mapped.limit();
+	    while (indexed < limit) {
+		final long offset = mapped.get(indexed);
+		if (offset < GameRecord.HEADER_SIZE || offset >= size || buffer.get((int) offset) != GameRecord.HAND_START) {
+		    break;
+		}
+		++indexed;
+	    }
+	}
+	//從最後一個有索引的牌局往後掃描到資料結尾，補上索引檔缺少的牌局
+	long[] offsets = null;
+	int count = indexed;
+	int p = indexed == 0 ? GameRecord.HEADER_SIZE : next((int) mapped.get(indexed - 1));
+	while (p < size && buffer.get(p) != GameRecord.END) {
+	    if (buffer.get(p) == GameRecord.HAND_START) {
+		if (offsets == null) {
+		    offsets = new long[Math.max(1024, indexed << 1)];
+		    if (indexed > 0) {
+			mapped.get(offsets, 0, indexed);
+		    }
+		} else if (count == offsets.length) {
+		    offsets = Arrays.copyOf(offsets, count << 1);
+		}
+		offsets[count++] = p;
+	    }
+	    p = next(p);
+	}
+	if (offsets != null) {
+	    index = LongBuffer.wrap(offsets, 0, count);
+	} else {
+	    index = mapped != null ? mapped : LongBuffer.allocate(0);
+	}
+	handCount = count;
+	indexedCount = indexed;
+	end = p;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得下一筆紀錄的位置。
+     *
+     * @param p 傳入目前紀錄的位置
+     * @return 傳回下一筆紀錄的位置
+     * @throws IOException 紀錄類型不正確時拋出
+     */
+    private int next(final int p) throws IOException {
+	switch (buffer.get(p)) {
+	    case GameRecord.HAND_START:
+		return p + 1 + Long.BYTES;
+	    case GameRecord.SHUFFLE:
+		return p + 3 + (buffer.getShort(p + 1) & 0xFFFF);
+	    case GameRecord.DEAL:
+		return p + 3 + (buffer.get(p + 2) & 0xFF);
+	    case GameRecord.ACTION:
+		return p + 3 + Integer.BYTES;
+	    default:
+		throw new IOException("Invalid record type " + buffer.get(p) + " at " + p);
+	}
+    }
+
+    /**
+     * 從某筆紀錄開始往後跳到資料結尾。
+     *
+     * @param p 傳入開始的位置
+     * @return 傳回資料結尾的位置
+     * @throws IOException 紀錄類型不正確時拋出
+     */
+    private int skip(int p) throws IOException {
+	final int size = buffer.capacity();
+	while (p < size && buffer.get(p) != GameRecord.END) {
+	    p = next(p);
+	}
+	return p;
+    }
+
+    /**
+     * 取得牌局數量。
+     *
+     * @return 傳回牌局數量
+     */
+    public int getHandCount() {
+	return handCount;
+    }
+
+    /**
+     * 取得索引檔中有效的牌局數量，之後的牌局是開啟時掃描紀錄檔補上的。
+     *
+     * @return 傳回牌局數量
+     */
+    int getIndexedCount() {
+	return indexedCount;
+    }
+
+    /**
+     * 取得牌局開始的位置。
+     *
+     * @param hand 傳入牌局(從0開始)
+     * @return 傳回牌局開始的位置
+     */
+    long getHandOffset(final int hand) {
+	if (hand < 0 || hand >= handCount) {
+	    throw new IndexOutOfBoundsException("Invalid hand: " + hand);
+	}
+	return index.get(hand);
+    }
+
+    /**
+     * 取得資料結尾的位置。
+     *
+     * @return 傳回資料結尾的位置
+     */
+    int getEnd() {
+	return end;
+    }
+
+    /**
+     * 重播所有紀錄。
+     *
+     * @param handler 傳入處理紀錄的物件
+     * @return 傳回紀錄的筆數
+     * @throws IOException 紀錄格式不正確時拋出
+     */
+    public long replay(final RecordHandler handler) throws IOException {
+	return replay(GameRecord.HEADER_SIZE, end, handler);
+    }
+
+    /**
+     * 重播某個範圍的牌局。
+     *
+     * @param from 傳入起始牌局(包含，從0開始)
+     * @param to 傳入結束牌局(不包含)
+     * @param handler 傳入處理紀錄的物件
+     * @return 傳回紀錄的筆數
+     * @throws IOException 紀錄格式不正確時拋出
+     */
+    public long replayHands(final int from, final int to, final RecordHandler handler) throws IOException {
+	if (from < 0 || to > handCount || from > to) {
+	    throw new IndexOutOfBoundsException("Invalid hand range: " + from + " ~ " + to);
+	}
+	if (from == to) {
+	    return 0;
+	}
+	final int start = (int) index.get(from);
+	final int stop = to == handCount ? end : (int) index.get(to);
+	return replay(start, stop, handler);
+    }
+
+    /**
+     * 重播某個牌局。
+     *
+     * @param hand 傳入牌局(從0開始)
+     * @param handler 傳入處理紀錄的物件
+     * @return 傳回紀錄的筆數
+     * @throws IOException 紀錄格式不正確時拋出
+     */
+    public long replayHand(final int hand, final RecordHandler handler) throws IOException {
+	return replayHands(hand, hand + 1, handler);
+    }
+
+    /**
+     * 重播某個範圍內的紀錄。
+     *
+     * @param start 傳入開始的位置
+     * @param stop 傳入結束的位置
+     * @param handler 傳入處理紀錄的物件
+     * @return 傳回紀錄的筆數
+     * @throws IOException 紀錄格式不正確時拋出
+     */
+    private long replay(final int start, final int stop, final RecordHandler handler) throws IOException {
+	long records = 0;
+	int p = start;
+	while (p < stop) {
+	    final int count;
+	    switch (buffer.get(p)) {
+		case GameRecord.HAND_START:
+		    handler.handStart(buffer.getLong(p + 1));
+		    p += 1 + Long.BYTES;
+		    break;
+		case GameRecord.SHUFFLE:
+		    count = buffer.getShort(p + 1) & 0xFFFF;
+		    readCards(p + 3, count);
+		    handler.shuffle(cards, count);
+		    p += 3 + count;
+		    break;
+		case GameRecord.DEAL:
+		    count = buffer.get(p + 2) & 0xFF;
+		    readCards(p + 3, count);
+		    handler.deal(buffer.get(p + 1) & 0xFF, cards, count);
+		    p += 3 + count;
+		    break;
+		case GameRecord.ACTION:
+		    handler.action(buffer.get(p + 1) & 0xFF, buffer.get(p + 2) & 0xFF, buffer.getInt(p + 3));
+		    p += 3 + Integer.BYTES;
+		    break;
+		default:
+		    throw new IOException("Invalid record type " + buffer.get(p) + " at " + p);
+	    }
+	    ++records;
+	}
+	return records;
+    }
+
+    /**
+     * 將牌讀入重複使用的牌陣列。
+     *
+     * @param p 傳入牌資料的位置
+     * @param count 傳入張數
+     */
+    private void readCards(final int p, final int count) {
+	buffer.position(p);
+	buffer.get(cards, 0, count);
+    }
+
+    /**
+     * 關閉讀取器。映射的記憶體會在緩衝區被回收時釋放。
+     */
+    @Override
+    public void close() {
+	buffer.clear();
+    }
+}
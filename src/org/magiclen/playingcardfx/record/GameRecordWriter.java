@@ -0,0 +1,230 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 遊戲紀錄寫入器。
+ * </p>
+ * <p>
+ * 透過記憶體映射檔案，將牌局、洗牌、發牌和玩家動作以GameRecord定義的二進位格式附加到檔案尾端，並同時維護牌局的索引檔。
+ * </p>
+ * <p>
+ * 此類別不是執行緒安全的。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class GameRecordWriter implements Closeable {
+
+    // -----類別方法-----
+    /**
+     * 開啟遊戲紀錄檔案。若檔案已存在，則從原本的資料後面繼續附加。
+     *
+     * @param path 傳入紀錄檔的路徑
+     * @return 傳回遊戲紀錄寫入器
+     * @throws IOException 開啟失敗或檔案格式不正確時拋出
+     */
+    public static GameRecordWriter open(final Path path) throws IOException {
+	final Path indexPath = path.resolveSibling(path.getFileName() + GameRecord.INDEX_SUFFIX);
+	int dataEnd = 0, indexEnd = 0;
+	long[] missing = new long[0];
+	if (Files.exists(path) && Files.size(path) > 0) {
+	    try (final GameRecordReader reader = GameRecordReader.open(path)) {
+		dataEnd = reader.getEnd();
+		//索引檔不存在或不完整時，讀取器掃描到的牌局位置要補寫回索引檔
+		final int indexed = reader.getIndexedCount();
+		indexEnd = indexed * Long.BYTES;
+		missing = new long[reader.getHandCount() - indexed];
+		for (int i = 0; i < missing.length; ++i) {
+		    missing[i] = reader.getHandOffset(indexed + i);
+		}
+	    }
+	}
+	return new GameRecordWriter(path, indexPath, dataEnd, indexEnd, missing);
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存紀錄檔的附加器。
+     */
+    private final MappedAppender data;
+    /**
+     * 儲存索引檔的附加器。
+     */
+    private final MappedAppender index;
+
+    // -----建構子-----
+    /**
+     * 建構子，開啟紀錄檔與索引檔。
+     *
+     * @param path 傳入紀錄檔的路徑
+     * @param indexPath 傳入索引檔的路徑
+     * @param dataEnd 傳入紀錄檔目前的資料結尾，0表示新檔案
+     * @param indexEnd 傳入索引檔目前的資料結尾
+     * @param missing 傳入索引檔缺少的牌局位置
+     * @throws IOException 開啟失敗時拋出
+     */
+    private GameRecordWriter(final Path path, final Path indexPath, final int dataEnd, final int indexEnd, final long[] missing) throws IOException {
+	data = new MappedAppender(path, dataEnd);
+	try {
+	    index = new MappedAppender(indexPath, indexEnd);
+	} catch (final IOException e) {
+	    data.close();
+	    throw e;
+	}
+	for (final long offset : missing) {
+	    index.ensure(Long.BYTES).putLong(offset);
+	}
+	if (dataEnd == 0) {
+	    final MappedByteBuffer buffer = data.ensure(GameRecord.HEADER_SIZE);
+	    buffer.put(GameRecord.MAGIC);
+	    buffer.put((byte) GameRecord.VERSION);
+	    buffer.put(new byte[GameRecord.HEADER_SIZE - GameRecord.MAGIC.length - 1]);
+	}
+    }
+
+    // -----物件方法-----
+    /**
+     * 寫入牌局開始的紀錄，並將位置加入索引檔。
+     *
+     * @param handId 傳入牌局編號
+     * @throws IOException 寫入失敗時拋出
+     */
+    public void startHand(final long handId) throws IOException {
+	index.ensure(Long.BYTES).putLong(data.position());
+	final MappedByteBuffer buffer = data.ensure(1 + Long.BYTES);
+	buffer.put(GameRecord.HAND_START);
+	buffer.putLong(handId);
+    }
+
+    /**
+     * 寫入洗牌的紀錄。
+     *
+     * @param cards 傳入洗牌後的牌(CardCode的索引值)
+     * @param from 傳入起始位置(包含)
+     * @param to 傳入結束位置(不包含)
+     * @throws IOException 寫入失敗時拋出
+     */
+    public void shuffle(final int[] cards, final int from, final int to) throws IOException {
+	final int count = to - from;
+	if (count < 0 || count > GameRecord.MAX_SHUFFLE_CARDS) {
+	    throw new IllegalArgumentException("Invalid card count: " + count);
+	}
+	final MappedByteBuffer buffer = data.ensure(3 + count);
+	buffer.put(GameRecord.SHUFFLE);
+	buffer.putShort((short) count);
+	putCards(buffer, cards, from, to);
+    }
+
+    /**
+     * 寫入發牌的紀錄。
+     *
+     * @param player 傳入玩家編號(0~255)
+     * @param cards 傳入發出的牌(CardCode的索引值)
+     * @param from 傳入起始位置(包含)
+     * @param to 傳入結束位置(不包含)
+     * @throws IOException 寫入失敗時拋出
+     */
+    public void deal(final int player, final int[] cards, final int from, final int to) throws IOException {
+	final int count = to - from;
+	if (count < 0 || count > GameRecord.MAX_DEAL_CARDS) {
+	    throw new IllegalArgumentException("Invalid card count: " + count);
+	}
+	checkPlayer(player);
+	final MappedByteBuffer buffer = data.ensure(3 + count);
+	buffer.put(GameRecord.DEAL);
+	buffer.put((byte) player);
+	buffer.put((byte) count);
+	putCards(buffer, cards, from, to);
+    }
+
+    /**
+     * 寫入玩家動作的紀錄。
+     *
+     * @param player 傳入玩家編號(0~255)
+     * @param action 傳入動作代碼(0~255)，意義由遊戲自行定義
+     * @param value 傳入動作數值，例如下注金額
+     * @throws IOException 寫入失敗時拋出
+     */
+    public void action(final int player, final int action, final int value) throws IOException {
+	checkPlayer(player);
+	if (action < 0 || action > 0xFF) {
+	    throw new IllegalArgumentException("Invalid action: " + action);
+	}
+	final MappedByteBuffer buffer = data.ensure(3 + Integer.BYTES);
+	buffer.put(GameRecord.ACTION);
+	buffer.put((byte) player);
+	buffer.put((byte) action);
+	buffer.putInt(value);
+    }
+
+    /**
+     * 檢查玩家編號是否正確。
+     *
+     * @param player 傳入玩家編號
+     */
+    private static void checkPlayer(final int player) {
+	if (player < 0 || player > GameRecord.MAX_PLAYER) {
+	    throw new IllegalArgumentException("Invalid player: " + player);
+	}
+    }
+
+    /**
+     * 將牌以位元組編碼寫入緩衝區。
+     *
+     * @param buffer 傳入緩衝區
+     * @param cards 傳入牌的索引值陣列
+     * @param from 傳入起始位置(包含)
+     * @param to 傳入結束位置(不包含)
+     */
+    private static void putCards(final MappedByteBuffer buffer, final int[] cards, final int from, final int to) {
+	for (int i = from; i < to; ++i) {
+	    buffer.put(CardCode.toByte(cards[i]));
+	}
+    }
+
+    /**
+     * 將寫入的資料強制存入儲存裝置。
+     */
+    public void force() {
+	data.force();
+	index.force();
+    }
+
+    /**
+     * 關閉紀錄檔與索引檔。
+     *
+     * @throws IOException 關閉失敗時拋出
+     */
+    @Override
+    public void close() throws IOException {
+	try {
+	    data.close();
+	} finally {
+	    index.close();
+	}
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * 透過記憶體映射檔案，在檔案尾端附加資料。
+ * </p>
+ * <p>
+ * 空間不足時，會將映射範圍加倍後重新映射。關閉時會將檔案截斷至實際寫入的大小。
+ * </p>
+ *
+ * @author Magic Len
+ */
+final class MappedAppender implements Closeable {
+
+    // -----類別常數-----
+    /**
+     * 最小的映射大小。
+     */
+    private static final int MIN_CAPACITY = 1 << 20;
+
+    // -----物件常數-----
+    /**
+     * 儲存檔案通道。
+     */
+    private final FileChannel channel;
+
+    // -----物件變數-----
+    /**
+     * 儲存目前映射的緩衝區。
+     */
+    private MappedByteBuffer buffer;
+
+    // -----建構子-----
+    /**
+     * 建構子，開啟(或建立)檔案並映射。
+     *
+     * @param path 傳入檔案路徑
+     * @param position 傳入開始寫入的位置
+     * @throws IOException 開啟或映射失敗時拋出
+     */
+    MappedAppender(final Path path, final int position) throws IOException {
+	channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	map(Math.max(MIN_CAPACITY, (int) Math.min(Integer.MAX_VALUE, channel.size())));
+	buffer.position(position);
+    }
+
+    // -----物件方法-----
+    /**
+     * 映射檔案。
+     *
+     * @param capacity 傳入映射大小
+     * @throws IOException 映射失敗時拋出
+     */
+    private void map(final int capacity) throws IOException {
+	final int position = buffer == null ? 0 : buffer.position();
+	buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	buffer.position(position);
+    }
+
+    /**
+     * 確保緩衝區還有足夠的空間可以寫入。
+     *
+     * @param length 傳入要寫入的位元組數
+     * @return 傳回可寫入的緩衝區
+     * @throws IOException 重新映射失敗時拋出
+     */
+    MappedByteBuffer ensure(final int length) throws IOException {
+	if (buffer.remaining() < length) {
+	    final long required = (long) buffer.position() + length;
+	    long capacity = buffer.capacity();
+	    while (capacity < required) {
+		capacity <<= 1;
+	    }
+	    if (capacity > Integer.MAX_VALUE) {
+		throw new IOException("Mapped file is too large: " + required);
+	    }
+	    map((int) capacity);
+	}
+	return buffer;
+    }
+
+    /**
+     * 取得目前寫入的位置。
+     *
+     * @return 傳回目前寫入的位置
+     */
+    int position() {
+	return buffer.position();
+    }
+
+    /**
+     * 將寫入的資料強制存入儲存裝置。
+     */
+    void force() {
+	buffer.force();
+    }
+
+    /**
+     * 關閉檔案，並將檔案截斷至實際寫入的大小。
+     *
+     * @throws IOException 關閉失敗時拋出
+     */
+    @Override
+    public void close() throws IOException {
+	final int position = buffer.position();
+	buffer.force();
+	buffer = null;
+	try {
+	    channel.truncate(position);
+	} catch (final IOException e) {
+	    //某些平台無法截斷仍被映射的檔案，此時尾端會留下全為0的空間，讀取時會被視為資料結束
+	} finally {
+	    channel.close();
+	}
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.record;
+
+/**
+ * <p>
+ * 重播遊戲紀錄時，接收每一筆紀錄的介面。
+ * </p>
+ * <p>
+ * 傳入的牌陣列會被重複使用，只在方法執行期間有效，若需要保存，請自行複製。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public interface RecordHandler {
+
+    /**
+     * 當牌局開始的時候。
+     *
+     * @param handId 傳入牌局編號
+     */
+    default void handStart(final long handId) {
+
+    }
+
+    /**
+     * 當洗牌的時候。
+     *
+     * @param cards 傳入洗牌後的牌(CardCode的位元組編碼)
+     * @param count 傳入張數
+     */
+    default void shuffle(final byte[] cards, final int count) {
+
+    }
+
+    /**
+     * 當發牌的時候。
+     *
+     * @param player 傳入玩家編號
+     * @param cards 傳入發出的牌(CardCode的位元組編碼)
+     * @param count 傳入張數
+     */
+    default void deal(final int player, final byte[] cards, final int count) {
+
+    }
+
+    /**
+     * 當玩家做出動作的時候。
+     *
+     * @param player 傳入玩家編號
+     * @param action 傳入動作代碼
+     * @param value 傳入動作數值
+     */
+    default void action(final int player, final int action, final int value) {
+
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 百家樂的模擬。
+ * </p>
+ * <p>
+ * 依照標準的補牌規則進行，每局固定下注一單位在莊家、閒家或和局。押莊家或閒家遇到和局時退回下注金額。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class BaccaratGame implements RoundPlayer {
+
+    // -----類別列舉-----
+    /**
+     * 下注的位置。
+     */
+    public static enum Bet {
+
+	BANKER, PLAYER, TIE
+    }
+
+    // -----類別常數-----
+    /**
+     * 每張牌的點數，10~K為0。
+     */
+    private static final int[] VALUES = new int[CardCode.COUNT];
+
+    static {
+	for (int i = 0; i < CardCode.SMALL_GHOST; ++i) {
+	    final int face = CardCode.faceOf(i);
+	    VALUES[i] = face >= 10 ? 0 : face;
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存下注的位置。
+     */
+    private final Bet bet;
+    /**
+     * 儲存押莊家贏時的賠率(扣除佣金)。
+     */
+    private final double bankerPayout;
+    /**
+     * 儲存押和局贏時的賠率。
+     */
+    private final double tiePayout;
+
+    // -----建構子-----
+    /**
+     * 建構子，使用莊家0.95倍、和局8倍的賠率。
+     *
+     * @param bet 傳入下注的位置
+     */
+    public BaccaratGame(final Bet bet) {
+	this(bet, 0.95, 8);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param bet 傳入下注的位置
+     * @param bankerPayout 傳入押莊家贏時的賠率
+     * @param tiePayout 傳入押和局贏時的賠率
+     */
+    public BaccaratGame(final Bet bet, final double bankerPayout, final double tiePayout) {
+	this.bet = bet;
+	this.bankerPayout = bankerPayout;
+	this.tiePayout = tiePayout;
+    }
+
+    // -----物件方法-----
+    /**
+     * 判斷莊家在閒家補了第三張牌後是否要補牌。
+     *
+     * @param banker 傳入莊家點數
+     * @param third 傳入閒家第三張牌的點數
+     * @return 傳回莊家是否要補牌
+     */
+    private static boolean bankerDraws(final int banker, final int third) {
+	switch (banker) {
+	    case 0:
+	    case 1:
+	    case 2:
+		return true;
+	    case 3:
+		return third != 8;
+	    case 4:
+		return third >= 2 && third <= 7;
+	    case 5:
+		return third >= 4 && third <= 7;
+	    case 6:
+		return third == 6 || third == 7;
+	    default:
+		return false;
+	}
+    }
+
+    /**
+     * 模擬一局百家樂。
+     *
+     * @param shoe 傳入牌靴
+     * @param result 傳入統計結果
+     */
+    @Override
+    public void playRound(final Shoe shoe, final SimulationResult result) {
+	if (shoe.needsShuffle()) {
+	    shoe.shuffle();
+	}
+	int player = VALUES[shoe.draw()];
+	int banker = VALUES[shoe.draw()];
+	player = (player + VALUES[shoe.draw()]) % 10;
+	banker = (banker + VALUES[shoe.draw()]) % 10;
+
+	if (player >= 8 || banker >= 8) {
+	    ++result.naturals;
+	} else if (player <= 5) {
+	    final int third = VALUES[shoe.draw()];
+	    player = (player + third) % 10;
+	    if (bankerDraws(banker, third)) {
+		banker = (banker + VALUES[shoe.draw()]) % 10;
+	    }
+	} else if (banker <= 5) {
+	    banker = (banker + VALUES[shoe.draw()]) % 10;
+	}
+
+	++result.hands;
+	final double win;
+	if (player == banker) {
+	    if (bet == Bet.TIE) {
+		++result.wins;
+		win = tiePayout;
+	    } else {
+		++result.pushes;
+		win = 0;
+	    }
+	} else if ((banker > player) == (bet == Bet.BANKER) && bet != Bet.TIE) {
+	    ++result.wins;
+	    win = bet == Bet.BANKER ? bankerPayout : 1;
+	} else {
+	    ++result.losses;
+	    win = -1;
+	}
+	result.record(1, win);
+    }
+}
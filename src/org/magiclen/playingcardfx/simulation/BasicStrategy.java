@@ -0,0 +1,216 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * 二十一點的基本策略表。
+ * </p>
+ * <p>
+ * 策略表以字元表示動作：H為要牌、S為停牌、D為加倍(不能加倍時要牌)、d為加倍(不能加倍時停牌)、P為分牌、N為不分牌(改查硬牌或軟牌表)。每一列有10個字元，依序對應莊家明牌2~10和A。
+ * </p>
+ * <p>
+ * 查表只是陣列存取，不會建立物件。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class BasicStrategy {
+
+    // -----類別常數-----
+    /**
+     * 動作：要牌。
+     */
+    public static final int HIT = 0;
+    /**
+     * 動作：停牌。
+     */
+    public static final int STAND = 1;
+    /**
+     * 動作：加倍。
+     */
+    public static final int DOUBLE = 2;
+    /**
+     * 動作：分牌。
+     */
+    public static final int SPLIT = 3;
+
+    // -----類別方法-----
+    /**
+     * <p>
+     * 建立多副牌、莊家軟17點停牌、分牌後可加倍的基本策略。
+     * </p>
+     *
+     * @return 傳回基本策略
+     */
+    public static BasicStrategy multiDeck() {
+	final BasicStrategy strategy = new BasicStrategy();
+	for (int total = 4; total <= 8; ++total) {
+	    strategy.setHard(total, "HHHHHHHHHH");
+	}
+	strategy.setHard(9, "HDDDDHHHHH");
+	strategy.setHard(10, "DDDDDDDDHH");
+	strategy.setHard(11, "DDDDDDDDDH");
+	strategy.setHard(12, "HHSSSHHHHH");
+	for (int total = 13; total <= 16; ++total) {
+	    strategy.setHard(total, "SSSSSHHHHH");
+	}
+	for (int total = 17; total <= 21; ++total) {
+	    strategy.setHard(total, "SSSSSSSSSS");
+	}
+	strategy.setSoft(12, "HHHHHHHHHH");
+	strategy.setSoft(13, "HHHDDHHHHH");
+	strategy.setSoft(14, "HHHDDHHHHH");
+	strategy.setSoft(15, "HHDDDHHHHH");
+	strategy.setSoft(16, "HHDDDHHHHH");
+	strategy.setSoft(17, "HDDDDHHHHH");
+	strategy.setSoft(18, "SddddSSHHH");
+	for (int total = 19; total <= 21; ++total) {
+	    strategy.setSoft(total, "SSSSSSSSSS");
+	}
+	strategy.setPair(2, "PPPPPPHHHH");
+	strategy.setPair(3, "PPPPPPHHHH");
+	strategy.setPair(4, "HHHPPHHHHH");
+	strategy.setPair(5, "NNNNNNNNNN");
+	strategy.setPair(6, "PPPPPHHHHH");
+	strategy.setPair(7, "PPPPPPHHHH");
+	strategy.setPair(8, "PPPPPPPPPP");
+	strategy.setPair(9, "PPPPPSPPSS");
+	strategy.setPair(10, "NNNNNNNNNN");
+	strategy.setPair(1, "PPPPPPPPPP");
+	return strategy;
+    }
+
+    /**
+     * 取得莊家明牌在策略表中的欄位。
+     *
+     * @param dealerValue 傳入莊家明牌的點數(A為1)
+     * @return 傳回欄位
+     */
+    private static int column(final int dealerValue) {
+	return dealerValue == 1 ? 9 : dealerValue - 2;
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存硬牌策略，以點數(0~21)和欄位為索引。
+     */
+    private final char[][] hard = new char[22][10];
+    /**
+     * 儲存軟牌策略，以點數(0~21)和欄位為索引。
+     */
+    private final char[][] soft = new char[22][10];
+    /**
+     * 儲存對子策略，以單張點數(A為1)和欄位為索引。
+     */
+    private final char[][] pairs = new char[11][10];
+
+    // -----建構子-----
+    /**
+     * 建構子，建立空的策略表(全部為停牌、不分牌)。
+     */
+    public BasicStrategy() {
+	for (int i = 0; i < 22; ++i) {
+	    Arrays.fill(hard[i], 'S');
+	    Arrays.fill(soft[i], 'S');
+	}
+	for (int i = 0; i < 11; ++i) {
+	    Arrays.fill(pairs[i], 'N');
+	}
+    }
+
+    // -----物件方法-----
+    /**
+     * 設定硬牌某個點數的策略。
+     *
+     * @param total 傳入點數
+     * @param row 傳入10個字元的策略
+     */
+    public void setHard(final int total, final String row) {
+	setRow(hard, total, row);
+    }
+
+    /**
+     * 設定軟牌某個點數(A算11點)的策略。
+     *
+     * @param total 傳入點數
+     * @param row 傳入10個字元的策略
+     */
+    public void setSoft(final int total, final String row) {
+	setRow(soft, total, row);
+    }
+
+    /**
+     * 設定某個對子的策略。
+     *
+     * @param value 傳入單張點數(A為1，10~K為10)
+     * @param row 傳入10個字元的策略
+     */
+    public void setPair(final int value, final String row) {
+	setRow(pairs, value, row);
+    }
+
+    /**
+     * 設定策略表的一列。
+     *
+     * @param table 傳入策略表
+     * @param i 傳入列
+     * @param row 傳入10個字元的策略
+     */
+    private static void setRow(final char[][] table, final int i, final String row) {
+	if (row.length() != 10) {
+	    throw new IllegalArgumentException("Strategy row needs 10 actions: " + row);
+	}
+	for (int c = 0; c < 10; ++c) {
+	    final char action = row.charAt(c);
+	    if ("HSDdPN".indexOf(action) < 0) {
+		throw new IllegalArgumentException("Invalid strategy action: " + action);
+	    }
+	    table[i][c] = action;
+	}
+    }
+
+    /**
+     * 決定玩家的動作。
+     *
+     * @param total 傳入玩家的最佳點數
+     * @param isSoft 傳入是否為軟牌
+     * @param pairValue 傳入若為可分牌的對子，傳入單張點數，否則傳入0
+     * @param dealerValue 傳入莊家明牌的點數(A為1)
+     * @param canDouble 傳入是否可以加倍
+     * @return 傳回動作
+     */
+    public int decide(final int total, final boolean isSoft, final int pairValue, final int dealerValue, final boolean canDouble) {
+	final int c = column(dealerValue);
+	if (pairValue > 0 && pairs[pairValue][c] == 'P') {
+	    return SPLIT;
+	}
+	switch ((isSoft ? soft : hard)[total][c]) {
+	    case 'H':
+		return HIT;
+	    case 'D':
+		return canDouble ? DOUBLE : HIT;
+	    case 'd':
+		return canDouble ? DOUBLE : STAND;
+	    default:
+		return STAND;
+	}
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 二十一點(黑傑克)的模擬。
+ * </p>
+ * <p>
+ * 玩家依照基本策略行動，並依照真數決定下注金額。莊家有A或10點明牌時會先檢查是否為黑傑克。所有手牌資料都存放在預先配置的陣列中，模擬一局時不會建立物件。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class BlackjackGame implements RoundPlayer {
+
+    // -----類別常數-----
+    /**
+     * 每張牌的點數，A為1，10~K為10。
+     */
+    private static final int[] VALUES = new int[CardCode.COUNT];
+
+    static {
+	for (int i = 0; i < CardCode.SMALL_GHOST; ++i) {
+	    VALUES[i] = Math.min(CardCode.faceOf(i), 10);
+	}
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存規則。
+     */
+    private final BlackjackRules rules;
+    /**
+     * 儲存基本策略。
+     */
+    private final BasicStrategy strategy;
+    /**
+     * 儲存下注表，以真數為索引，真數小於0時使用第一個，超過範圍時使用最後一個。
+     */
+    private final int[] betRamp;
+    /**
+     * 儲存每一手的硬點數(A算1點)。
+     */
+    private final int[] totals;
+    /**
+     * 儲存每一手是否有A。
+     */
+    private final boolean[] aces;
+    /**
+     * 儲存每一手的張數。
+     */
+    private final int[] counts;
+    /**
+     * 儲存每一手前兩張牌的點數。
+     */
+    private final int[] firsts, seconds;
+    /**
+     * 儲存每一手的下注金額。
+     */
+    private final double[] bets;
+    /**
+     * 儲存每一手是否是A分牌而來。
+     */
+    private final boolean[] splitAces;
+
+    // -----物件變數-----
+    /**
+     * 儲存目前的手數。
+     */
+    private int handCount;
+
+    // -----建構子-----
+    /**
+     * 建構子，固定下注一單位。
+     *
+     * @param rules 傳入規則
+     * @param strategy 傳入基本策略
+     */
+    public BlackjackGame(final BlackjackRules rules, final BasicStrategy strategy) {
+	this(rules, strategy, 1);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param rules 傳入規則
+     * @param strategy 傳入基本策略
+     * @param betRamp 傳入下注表，依序為真數0、1、2...時的下注單位
+     */
+    public BlackjackGame(final BlackjackRules rules, final BasicStrategy strategy, final int... betRamp) {
+	if (betRamp.length == 0) {
+	    throw new IllegalArgumentException("Bet ramp is empty.");
+	}
+	this.rules = rules;
+	this.strategy = strategy;
+	this.betRamp = betRamp.clone();
+	final int maxHands = rules.getMaxSplits() + 1;
+	totals = new int[maxHands];
+	aces = new boolean[maxHands];
+	counts = new int[maxHands];
+	firsts = new int[maxHands];
+	seconds = new int[maxHands];
+	bets = new double[maxHands];
+	splitAces = new boolean[maxHands];
+    }
+
+    // -----物件方法-----
+    /**
+     * 模擬一局二十一點。
+     *
+     * @param shoe 傳入牌靴
+     * @param result 傳入統計結果
+     */
+    @Override
+    public void playRound(final Shoe shoe, final SimulationResult result) {
+	if (shoe.needsShuffle()) {
+	    shoe.shuffle();
+	}
+	final int trueCount = shoe.getTrueCount();
+	final int bet = betRamp[Math.max(0, Math.min(betRamp.length - 1, trueCount))];
+
+	handCount = 1;
+	startHand(0, VALUES[shoe.draw()], bet);
+	final int up = VALUES[shoe.draw()];
+	addCard(0, VALUES[shoe.draw()]);
+	final int hole = VALUES[shoe.draw()];
+
+	final boolean playerNatural = best(0) == 21;
+	final boolean dealerNatural = (up == 1 && hole == 10) || (up == 10 && hole == 1);
+	if (playerNatural || dealerNatural) {
+	    ++result.hands;
+	    final double win;
+	    if (playerNatural && dealerNatural) {
+		++result.pushes;
+		win = 0;
+	    } else if (playerNatural) {
+		++result.wins;
+		++result.naturals;
+		win = bet * rules.getBlackjackPayout();
+	    } else {
+		++result.losses;
+		win = -bet;
+	    }
+	    result.record(bet, win);
+	    return;
+	}
+
+	//玩家行動
+	boolean anyAlive = false;
+	for (int h = 0; h < handCount; ++h) {
+	    while (!splitAces[h]) {
+		final int total = best(h);
+		if (total >= 21) {
+		    break;
+		}
+		final boolean canSplit = counts[h] == 2 && firsts[h] == seconds[h] && handCount <= rules.getMaxSplits();
+		final boolean canDouble = counts[h] == 2 && (handCount == 1 || rules.isDoubleAfterSplit());
+		final int action = strategy.decide(total, isSoft(h), canSplit ? firsts[h] : 0, up, canDouble);
+		if (action == BasicStrategy.STAND) {
+		    break;
+		} else if (action == BasicStrategy.DOUBLE) {
+		    bets[h] *= 2;
+		    addCard(h, VALUES[shoe.draw()]);
+		    break;
+		} else if (action == BasicStrategy.SPLIT) {
+		    final int value = firsts[h];
+		    final int n = handCount++;
+		    startHand(h, value, bets[h]);
+		    startHand(n, value, bets[h]);
+		    addCard(h, VALUES[shoe.draw()]);
+		    addCard(n, VALUES[shoe.draw()]);
+		    if (value == 1) {
+			splitAces[h] = true;
+			splitAces[n] = true;
+		    }
+		} else {
+		    addCard(h, VALUES[shoe.draw()]);
+		}
+	    }
+	    anyAlive |= totals[h] <= 21;
+	}
+
+	//莊家行動
+	int dealerTotal = up + hole;
+	boolean dealerAce = up == 1 || hole == 1;
+	if (anyAlive) {
+	    while (true) {
+		final boolean soft = dealerAce && dealerTotal + 10 <= 21;
+		final int best = soft ? dealerTotal + 10 : dealerTotal;
+		if (best > 17 || (best == 17 && !(soft && rules.isDealerHitsSoft17()))) {
+		    break;
+		}
+		final int value = VALUES[shoe.draw()];
+		dealerTotal += value;
+		dealerAce |= value == 1;
+	    }
+	}
+	final int dealerBest = dealerAce && dealerTotal + 10 <= 21 ? dealerTotal + 10 : dealerTotal;
+
+	//結算
+	double totalBet = 0, win = 0;
+	for (int h = 0; h < handCount; ++h) {
+	    final int total = best(h);
+	    totalBet += bets[h];
+	    ++result.hands;
+	    if (total > 21 || (dealerBest <= 21 && total < dealerBest)) {
+		++result.losses;
+		win -= bets[h];
+	    } else if (dealerBest > 21 || total > dealerBest) {
+		++result.wins;
+		win += bets[h];
+	    } else {
+		++result.pushes;
+	    }
+	}
+	result.record(totalBet, win);
+    }
+
+    /**
+     * 以一張牌開始一手牌。
+     *
+     * @param h 傳入手牌編號
+     * @param value 傳入第一張牌的點數
+     * @param bet 傳入下注金額
+     */
+    private void startHand(final int h, final int value, final double bet) {
+	totals[h] = value;
+	aces[h] = value == 1;
+	counts[h] = 1;
+	firsts[h] = value;
+	seconds[h] = 0;
+	bets[h] = bet;
+	splitAces[h] = false;
+    }
+
+    /**
+     * 在一手牌中加入一張牌。
+     *
+     * @param h 傳入手牌編號
+     * @param value 傳入牌的點數
+     */
+    private void addCard(final int h, final int value) {
+	totals[h] += value;
+	aces[h] |= value == 1;
+	if (++counts[h] == 2) {
+	    seconds[h] = value;
+	}
+    }
+
+    /**
+     * 判斷一手牌是否為軟牌(A可以算11點)。
+     *
+     * @param h 傳入手牌編號
+     * @return 傳回是否為軟牌
+     */
+    private boolean isSoft(final int h) {
+	return aces[h] && totals[h] + 10 <= 21;
+    }
+
+    /**
+     * 取得一手牌的最佳點數。
+     *
+     * @param h 傳入手牌編號
+     * @return 傳回最佳點數
+     */
+    private int best(final int h) {
+	return isSoft(h) ? totals[h] + 10 : totals[h];
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+/**
+ * 二十一點(黑傑克)的規則設定。
+ *
+ * @author Magic Len
+ */
+public class BlackjackRules {
+
+    // -----物件變數-----
+    /**
+     * 儲存莊家在軟17點時是否要牌。
+     */
+    private boolean dealerHitsSoft17 = false;
+    /**
+     * 儲存黑傑克的賠率。
+     */
+    private double blackjackPayout = 1.5;
+    /**
+     * 儲存分牌後是否可以加倍。
+     */
+    private boolean doubleAfterSplit = true;
+    /**
+     * 儲存一局最多可以分牌的次數。
+     */
+    private int maxSplits = 3;
+
+    // -----物件方法-----
+    /**
+     * 判斷莊家在軟17點時是否要牌。
+     *
+     * @return 傳回莊家在軟17點時是否要牌
+     */
+    public boolean isDealerHitsSoft17() {
+	return dealerHitsSoft17;
+    }
+
+    /**
+     * 設定莊家在軟17點時是否要牌。
+     *
+     * @param dealerHitsSoft17 傳入莊家在軟17點時是否要牌
+     */
+    public void setDealerHitsSoft17(final boolean dealerHitsSoft17) {
+	this.dealerHitsSoft17 = dealerHitsSoft17;
+    }
+
+    /**
+     * 取得黑傑克的賠率。
+     *
+     * @return 傳回黑傑克的賠率
+     */
+    public double getBlackjackPayout() {
+	return blackjackPayout;
+    }
+
+    /**
+     * 設定黑傑克的賠率，例如3:2為1.5、6:5為1.2。
+     *
+     * @param blackjackPayout 傳入黑傑克的賠率
+     */
+    public void setBlackjackPayout(final double blackjackPayout) {
+	this.blackjackPayout = blackjackPayout;
+    }
+
+    /**
+     * 判斷分牌後是否可以加倍。
+     *
+     * @return 傳回分牌後是否可以加倍
+     */
+    public boolean isDoubleAfterSplit() {
+	return doubleAfterSplit;
+    }
+
+    /**
+     * 設定分牌後是否可以加倍。
+     *
+     * @param doubleAfterSplit 傳入分牌後是否可以加倍
+     */
+    public void setDoubleAfterSplit(final boolean doubleAfterSplit) {
+	this.doubleAfterSplit = doubleAfterSplit;
+    }
+
+    /**
+     * 取得一局最多可以分牌的次數。
+     *
+     * @return 傳回最多可以分牌的次數
+     */
+    public int getMaxSplits() {
+	return maxSplits;
+    }
+
+    /**
+     * 設定一局最多可以分牌的次數。A分牌後每手只會再拿一張牌，且不能再分牌。
+     *
+     * @param maxSplits 傳入最多可以分牌的次數
+     */
+    public void setMaxSplits(final int maxSplits) {
+	if (maxSplits < 0) {
+	    throw new IllegalArgumentException("Invalid max splits: " + maxSplits);
+	}
+	this.maxSplits = maxSplits;
+    }
+}
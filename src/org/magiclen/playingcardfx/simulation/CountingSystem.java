@@ -0,0 +1,141 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 算牌系統。
+ * </p>
+ * <p>
+ * 預先計算好每張牌(參考CardCode)的計數值，發牌時只需要查表累加。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class CountingSystem {
+
+    // -----類別常數-----
+    /**
+     * 不算牌。
+     */
+    public static final CountingSystem NONE = new CountingSystem("NONE", false, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    /**
+     * Hi-Lo算牌法，2~6為+1，7~9為0，10~K和A為-1。
+     */
+    public static final CountingSystem HI_LO = new CountingSystem("HI_LO", true, -1, 1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1);
+    /**
+     * KO算牌法(不平衡)，2~7為+1，8~9為0，10~K和A為-1。
+     */
+    public static final CountingSystem KO = new CountingSystem("KO", false, -1, 1, 1, 1, 1, 1, 1, 0, 0, -1, -1, -1, -1);
+    /**
+     * Zen算牌法，2、3、7為+1，4~6為+2，8~9為0，10~K為-2，A為-1。
+     */
+    public static final CountingSystem ZEN = new CountingSystem("ZEN", true, -1, 1, 1, 2, 2, 2, 1, 0, 0, -2, -2, -2, -2);
+
+    // -----類別方法-----
+    /**
+     * 建立自訂的算牌系統。
+     *
+     * @param name 傳入名稱
+     * @param balanced 傳入是否為平衡算牌法(一副牌的計數總和為0)，平衡算牌法才會換算成真數
+     * @param tags 傳入A~K共13個牌值的計數值
+     * @return 傳回算牌系統
+     */
+    public static CountingSystem of(final String name, final boolean balanced, final int... tags) {
+	return new CountingSystem(name, balanced, tags);
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存名稱。
+     */
+    private final String name;
+    /**
+     * 儲存是否為平衡算牌法。
+     */
+    private final boolean balanced;
+    /**
+     * 儲存每張牌的計數值，以牌的索引值為陣列索引。
+     */
+    private final int[] tags = new int[CardCode.COUNT];
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param name 傳入名稱
+     * @param balanced 傳入是否為平衡算牌法
+     * @param faceTags 傳入A~K共13個牌值的計數值
+     */
+    private CountingSystem(final String name, final boolean balanced, final int... faceTags) {
+	if (faceTags.length != CardCode.FACE_COUNT) {
+	    throw new IllegalArgumentException("Counting system needs " + CardCode.FACE_COUNT + " tags: " + faceTags.length);
+	}
+	this.name = name;
+	this.balanced = balanced;
+	for (int i = 0; i < CardCode.SMALL_GHOST; ++i) {
+	    tags[i] = faceTags[CardCode.faceOf(i) - 1];
+	}
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得牌的計數值。
+     *
+     * @param index 傳入牌的索引值
+     * @return 傳回計數值
+     */
+    public int tag(final int index) {
+	return tags[index];
+    }
+
+    /**
+     * 判斷是否為平衡算牌法。
+     *
+     * @return 傳回是否為平衡算牌法
+     */
+    public boolean isBalanced() {
+	return balanced;
+    }
+
+    /**
+     * 將流水數換算成真數。不平衡算牌法直接傳回流水數。
+     *
+     * @param runningCount 傳入流水數
+     * @param remainingCards 傳入牌靴中剩下的張數
+     * @return 傳回真數(無條件捨去)
+     */
+    public int trueCount(final int runningCount, final int remainingCards) {
+	if (!balanced || remainingCards <= 0) {
+	    return runningCount;
+	}
+	return (int) Math.floor(runningCount * 52.0 / remainingCards);
+    }
+
+    /**
+     * 傳回算牌系統的名稱。
+     *
+     * @return 傳回算牌系統的名稱
+     */
+    @Override
+    public String toString() {
+	return name;
+    }
+}
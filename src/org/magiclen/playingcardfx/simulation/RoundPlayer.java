@@ -0,0 +1,39 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+/**
+ * <p>
+ * 模擬一局遊戲的介面。
+ * </p>
+ * <p>
+ * 每個執行緒會建立自己的實作物件，因此實作可以保存可重複使用的暫存資料，不需要是執行緒安全的。playRound方法中不應該建立物件。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public interface RoundPlayer {
+
+    /**
+     * 模擬一局遊戲，並將結果累加到統計結果中。
+     *
+     * @param shoe 傳入牌靴
+     * @param result 傳入統計結果
+     */
+    void playRound(Shoe shoe, SimulationResult result);
+}
@@ -0,0 +1,157 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+import java.util.SplittableRandom;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 牌靴。
+ * </p>
+ * <p>
+ * 由多副牌(不含鬼牌)組成，以CardCode的索引值儲存。發到切牌卡的位置後就需要重新洗牌，切牌卡的位置由滲透率決定。發牌時會同時累加算牌系統的流水數。
+ * </p>
+ * <p>
+ * 此類別不是執行緒安全的，每個執行緒應該使用自己的牌靴與亂數產生器。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class Shoe {
+
+    // -----物件常數-----
+    /**
+     * 儲存牌。
+     */
+    private final int[] cards;
+    /**
+     * 儲存切牌卡的位置。
+     */
+    private final int cutCard;
+    /**
+     * 儲存亂數產生器。
+     */
+    private final SplittableRandom random;
+    /**
+     * 儲存算牌系統。
+     */
+    private final CountingSystem counting;
+
+    // -----物件變數-----
+    /**
+     * 儲存下一張要發的牌的位置。
+     */
+    private int position;
+    /**
+     * 儲存流水數。
+     */
+    private int runningCount;
+
+    // -----建構子-----
+    /**
+     * 建構子，建立並洗好牌靴。
+     *
+     * @param decks 傳入牌的副數
+     * @param penetration 傳入滲透率(0~1)，即洗牌前會發出的牌的比例
+     * @param random 傳入亂數產生器
+     * @param counting 傳入算牌系統
+     */
+    public Shoe(final int decks, final double penetration, final SplittableRandom random, final CountingSystem counting) {
+	if (decks < 1) {
+	    throw new IllegalArgumentException("Invalid deck count: " + decks);
+	}
+	if (penetration <= 0 || penetration > 1) {
+	    throw new IllegalArgumentException("Invalid penetration: " + penetration);
+	}
+	cards = new int[decks * CardCode.SMALL_GHOST];
+	for (int i = 0; i < cards.length; ++i) {
+	    cards[i] = i % CardCode.SMALL_GHOST;
+	}
+	cutCard = (int) (cards.length * penetration);
+	this.random = random;
+	this.counting = counting;
+	shuffle();
+    }
+
+    // -----物件方法-----
+    /**
+     * 以Fisher-Yates演算法洗牌，並歸零流水數。
+     */
+    public final void shuffle() {
+	for (int i = cards.length - 1; i > 0; --i) {
+	    final int j = random.nextInt(i + 1);
+	    final int t = cards[i];
+	    cards[i] = cards[j];
+	    cards[j] = t;
+	}
+	position = 0;
+	runningCount = 0;
+    }
+
+    /**
+     * 判斷是否已經發到切牌卡，需要重新洗牌。
+     *
+     * @return 傳回是否需要重新洗牌
+     */
+    public boolean needsShuffle() {
+	return position >= cutCard;
+    }
+
+    /**
+     * 發一張牌。
+     *
+     * @return 傳回牌的索引值
+     */
+    public int draw() {
+	if (position == cards.length) {
+	    //切牌卡設得太深時，牌局中途用完牌，只好重新洗牌
+	    shuffle();
+	}
+	final int card = cards[position++];
+	runningCount += counting.tag(card);
+	return card;
+    }
+
+    /**
+     * 取得剩下的張數。
+     *
+     * @return 傳回剩下的張數
+     */
+    public int getRemaining() {
+	return cards.length - position;
+    }
+
+    /**
+     * 取得流水數。
+     *
+     * @return 傳回流水數
+     */
+    public int getRunningCount() {
+	return runningCount;
+    }
+
+    /**
+     * 取得真數。
+     *
+     * @return 傳回真數
+     */
+    public int getTrueCount() {
+	return counting.trueCount(runningCount, getRemaining());
+    }
+}
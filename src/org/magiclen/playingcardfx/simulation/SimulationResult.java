@@ -0,0 +1,228 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+/**
+ * <p>
+ * 模擬的統計結果。
+ * </p>
+ * <p>
+ * 金額皆以下注單位計算。每個執行緒各自累加自己的結果，最後再合併。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class SimulationResult {
+
+    // -----物件變數-----
+    /**
+     * 儲存牌局數。
+     */
+    long rounds;
+    /**
+     * 儲存手數(分牌後的每一手各算一手)。
+     */
+    long hands;
+    /**
+     * 儲存贏的手數。
+     */
+    long wins;
+    /**
+     * 儲存輸的手數。
+     */
+    long losses;
+    /**
+     * 儲存和局的手數。
+     */
+    long pushes;
+    /**
+     * 儲存拿到黑傑克(或例牌)的次數。
+     */
+    long naturals;
+    /**
+     * 儲存總下注金額。
+     */
+    double wagered;
+    /**
+     * 儲存總輸贏金額。
+     */
+    double net;
+    /**
+     * 儲存每局輸贏金額的平方和，用來計算標準差。
+     */
+    double netSquares;
+    /**
+     * 儲存花費的時間(奈秒)。
+     */
+    long elapsed;
+
+    // -----物件方法-----
+    /**
+     * 記錄一局的輸贏。
+     *
+     * @param bet 傳入這局的總下注金額
+     * @param result 傳入這局的輸贏金額
+     */
+    void record(final double bet, final double result) {
+	++rounds;
+	wagered += bet;
+	net += result;
+	netSquares += result * result;
+    }
+
+    /**
+     * 合併另一個結果。花費的時間取較長者，因為各執行緒是同時執行的。
+     *
+     * @param other 傳入另一個結果
+     */
+    public void merge(final SimulationResult other) {
+	rounds += other.rounds;
+	hands += other.hands;
+	wins += other.wins;
+	losses += other.losses;
+	pushes += other.pushes;
+	naturals += other.naturals;
+	wagered += other.wagered;
+	net += other.net;
+	netSquares += other.netSquares;
+	elapsed = Math.max(elapsed, other.elapsed);
+    }
+
+    /**
+     * 取得牌局數。
+     *
+     * @return 傳回牌局數
+     */
+    public long getRounds() {
+	return rounds;
+    }
+
+    /**
+     * 取得手數。
+     *
+     * @return 傳回手數
+     */
+    public long getHands() {
+	return hands;
+    }
+
+    /**
+     * 取得贏的手數。
+     *
+     * @return 傳回贏的手數
+     */
+    public long getWins() {
+	return wins;
+    }
+
+    /**
+     * 取得輸的手數。
+     *
+     * @return 傳回輸的手數
+     */
+    public long getLosses() {
+	return losses;
+    }
+
+    /**
+     * 取得和局的手數。
+     *
+     * @return 傳回和局的手數
+     */
+    public long getPushes() {
+	return pushes;
+    }
+
+    /**
+     * 取得拿到黑傑克(或例牌)的次數。
+     *
+     * @return 傳回次數
+     */
+    public long getNaturals() {
+	return naturals;
+    }
+
+    /**
+     * 取得總下注金額。
+     *
+     * @return 傳回總下注金額
+     */
+    public double getWagered() {
+	return wagered;
+    }
+
+    /**
+     * 取得總輸贏金額(玩家角度)。
+     *
+     * @return 傳回總輸贏金額
+     */
+    public double getNet() {
+	return net;
+    }
+
+    /**
+     * 取得莊家優勢，即玩家每下注一單位平均輸掉的金額。
+     *
+     * @return 傳回莊家優勢
+     */
+    public double getHouseEdge() {
+	return wagered == 0 ? 0 : -net / wagered;
+    }
+
+    /**
+     * 取得每局輸贏金額的標準差。
+     *
+     * @return 傳回標準差
+     */
+    public double getStandardDeviation() {
+	if (rounds == 0) {
+	    return 0;
+	}
+	final double mean = net / rounds;
+	return Math.sqrt(Math.max(0, netSquares / rounds - mean * mean));
+    }
+
+    /**
+     * 取得花費的時間(奈秒)。
+     *
+     * @return 傳回花費的時間
+     */
+    public long getElapsed() {
+	return elapsed;
+    }
+
+    /**
+     * 取得每秒模擬的牌局數。
+     *
+     * @return 傳回每秒模擬的牌局數
+     */
+    public double getRoundsPerSecond() {
+	return elapsed == 0 ? 0 : rounds * 1e9 / elapsed;
+    }
+
+    /**
+     * 傳回統計結果的文字。
+     *
+     * @return 傳回統計結果的文字
+     */
+    @Override
+    public String toString() {
+	return String.format("rounds=%d, hands=%d, win=%d, loss=%d, push=%d, natural=%d, wagered=%.1f, net=%.1f, edge=%.4f%%, sd=%.4f, %.0f rounds/s",
+		rounds, hands, wins, losses, pushes, naturals, wagered, net, getHouseEdge() * 100, getStandardDeviation(), getRoundsPerSecond());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * 平行牌靴模擬器。
+ * </p>
+ * <p>
+ * 將牌局平均分配給多個執行緒，每個執行緒使用自己的牌靴、亂數產生器(由同一個種子分裂而來)和RoundPlayer，最後合併統計結果。相同的種子和執行緒數量會得到相同的結果。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class Simulator {
+
+    // -----物件變數-----
+    /**
+     * 儲存牌的副數。
+     */
+    private int decks = 8;
+    /**
+     * 儲存滲透率。
+     */
+    private double penetration = 0.75;
+    /**
+     * 儲存算牌系統。
+     */
+    private CountingSystem counting = CountingSystem.NONE;
+    /**
+     * 儲存執行緒數量。
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * 儲存亂數種子。
+     */
+    private long seed = System.nanoTime();
+
+    // -----物件方法-----
+    /**
+     * 設定牌的副數。
+     *
+     * @param decks 傳入牌的副數
+     */
+    public void setDecks(final int decks) {
+	this.decks = decks;
+    }
+
+    /**
+     * 設定滲透率(切牌卡的位置)。
+     *
+     * @param penetration 傳入滲透率(0~1)
+     */
+    public void setPenetration(final double penetration) {
+	this.penetration = penetration;
+    }
+
+    /**
+     * 設定算牌系統。
+     *
+     * @param counting 傳入算牌系統
+     */
+    public void setCounting(final CountingSystem counting) {
+	this.counting = counting;
+    }
+
+    /**
+     * 設定執行緒數量。
+     *
+     * @param threads 傳入執行緒數量
+     */
+    public void setThreads(final int threads) {
+	if (threads < 1) {
+	    throw new IllegalArgumentException("Invalid thread count: " + threads);
+	}
+	this.threads = threads;
+    }
+
+    /**
+     * 設定亂數種子。
+     *
+     * @param seed 傳入亂數種子
+     */
+    public void setSeed(final long seed) {
+	this.seed = seed;
+    }
+
+    /**
+     * 執行模擬。
+     *
+     * @param rounds 傳入總牌局數
+     * @param playerFactory 傳入建立RoundPlayer的方法，每個執行緒會呼叫一次
+     * @return 傳回合併後的統計結果
+     * @throws InterruptedException 等待時被中斷則拋出
+     */
+    public SimulationResult run(final long rounds, final Supplier<? extends RoundPlayer> playerFactory) throws InterruptedException {
+	final SplittableRandom master = new SplittableRandom(seed);
+	final ExecutorService executor = Executors.newFixedThreadPool(threads);
+	try {
+	    final List<Future<SimulationResult>> futures = new ArrayList<>(threads);
+	    for (int t = 0; t < threads; ++t) {
+		final long shard = rounds / threads + (t < rounds % threads ? 1 : 0);
+		final SplittableRandom random = master.split();
+		futures.add(executor.submit(() -> {
+		    final Shoe shoe = new Shoe(decks, penetration, random, counting);
+		    final RoundPlayer player = playerFactory.get();
+		    final SimulationResult result = new SimulationResult();
+		    final long start = System.nanoTime();
+		    for (long r = 0; r < shard; ++r) {
+			player.playRound(shoe, result);
+		    }
+		    result.elapsed = System.nanoTime() - start;
+		    return result;
+		}));
+	    }
+	    final SimulationResult merged = new SimulationResult();
+	    for (final Future<SimulationResult> future : futures) {
+		try {
+		    merged.merge(future.get());
+		} catch (final ExecutionException e) {
+		    throw new IllegalStateException("Simulation failed.", e.getCause());
+		}
+	    }
+	    return merged;
+	} finally {
+	    executor.shutdownNow();
+	}
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <p>
+ * 在同一個程序中直接把訊框交給接收端的傳送方式。
+ * </p>
+ * <p>
+ * 不會複製訊框的內容，每個接收端都會拿到共用相同內容的緩衝區。可用於測試，或是在同一個JVM中同步多個牌桌畫面。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class LoopbackTransport implements TableTransport {
+
+    // -----物件常數-----
+    /**
+     * 儲存接收端。
+     */
+    private final List<TableSyncReceiver> receivers = new CopyOnWriteArrayList<>();
+
+    // -----物件變數-----
+    /**
+     * 儲存已傳送的位元組數。
+     */
+    private long bytesSent;
+
+    // -----物件方法-----
+    /**
+     * 加入接收端。
+     *
+     * @param receiver 傳入接收端
+     */
+    public void addReceiver(final TableSyncReceiver receiver) {
+	receivers.add(receiver);
+    }
+
+    /**
+     * 移除接收端。
+     *
+     * @param receiver 傳入接收端
+     */
+    public void removeReceiver(final TableSyncReceiver receiver) {
+	receivers.remove(receiver);
+    }
+
+    /**
+     * 取得已傳送的位元組數。
+     *
+     * @return 傳回已傳送的位元組數
+     */
+    public long getBytesSent() {
+	return bytesSent;
+    }
+
+    /**
+     * 將訊框交給所有接收端。
+     *
+     * @param frames 傳入包含一個或多個訊框的緩衝區
+     */
+    @Override
+    public void send(final ByteBuffer frames) {
+	bytesSent += frames.remaining();
+	for (final TableSyncReceiver receiver : receivers) {
+	    receiver.receive(frames.duplicate());
+	}
+    }
+}
@@ -0,0 +1,595 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 不可變的牌桌狀態。
+ * </p>
+ * <p>
+ * 內容與TableState相同(每個位置的牌、座標、是否顯示背面、是否被選取)，另外加上每個位置的堆疊順序。資料存放在分支數為32的樹中，修改一個位置時只複製從根到該位置的路徑(O(log n))，其他節點都與原本的狀態共用，因此每一步都保留一份狀態也不會佔用太多記憶體，適合用來實作復原/重做以及牌局的回放。
+ * </p>
+ * <p>
+ * 比較兩個狀態時，共用的節點可以直接跳過，因此比較的時間只和修改過的位置數量有關。狀態是不可變的，可以安全地被多個執行緒共用。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class PersistentTableState {
+
+    // -----類別常數-----
+    /**
+     * 改變：牌。
+     */
+    public static final int CHANGED_CARD = 1;
+    /**
+     * 改變：座標。
+     */
+    public static final int CHANGED_POSITION = 2;
+    /**
+     * 改變：旗標。
+     */
+    public static final int CHANGED_FLAGS = 4;
+    /**
+     * 改變：堆疊順序。
+     */
+    public static final int CHANGED_ORDER = 8;
+    /**
+     * 改變：新增的位置。
+     */
+    public static final int ADDED = 16;
+    /**
+     * 改變：移除的位置。
+     */
+    public static final int REMOVED = 32;
+    /**
+     * 空的牌桌。
+     */
+    public static final PersistentTableState EMPTY = new PersistentTableState(null, 0, 0, 0);
+    /**
+     * 每一層使用的位元數。
+     */
+    private static final int BITS = 5;
+    /**
+     * 每個節點的分支數。
+     */
+    private static final int WIDTH = 1 << BITS;
+    /**
+     * 取得節點內索引的遮罩。
+     */
+    private static final int MASK = WIDTH - 1;
+
+    // -----類別介面-----
+    /**
+     * 接收兩個狀態之間差異的介面。
+     */
+    @FunctionalInterface
+    public static interface DiffHandler {
+
+	/**
+	 * 當某個位置改變時被呼叫，位置由小到大依序通知。
+	 *
+	 * @param slot 傳入位置
+	 * @param changes 傳入改變的項目，為CHANGED_*、ADDED、REMOVED的組合
+	 */
+	void slotChanged(int slot, int changes);
+    }
+
+    // -----內部類別-----
+    /**
+     * 分支節點。
+     */
+    private static final class Branch {
+
+	/**
+	 * 子節點。
+	 */
+	private final Object[] children;
+
+	/**
+	 * 建構子。
+	 *
+	 * @param children 傳入子節點
+	 */
+	Branch(final Object[] children) {
+	    this.children = children;
+	}
+    }
+
+    /**
+     * 葉節點，存放32個位置的資料。
+     */
+    private static final class Leaf {
+
+	/**
+	 * 每個位置的牌、旗標與堆疊順序，參考meta方法。
+	 */
+	private final long[] metas;
+	/**
+	 * 每個位置的座標，高32位元為X，低32位元為Y。
+	 */
+	private final long[] positions;
+
+	/**
+	 * 建構子。
+	 *
+	 * @param metas 傳入牌、旗標與堆疊順序
+	 * @param positions 傳入座標
+	 */
+	Leaf(final long[] metas, final long[] positions) {
+	    this.metas = metas;
+	    this.positions = positions;
+	}
+    }
+
+    // -----類別方法-----
+    /**
+     * 將牌、旗標與堆疊順序合成一個long。
+     *
+     * @param card 傳入牌的索引值，CardCode.NONE表示沒有牌
+     * @param flags 傳入旗標
+     * @param order 傳入堆疊順序
+     * @return 傳回合成的值
+     */
+    private static long meta(final int card, final int flags, final int order) {
+	return ((long) order << 32) | ((flags & 0xFF) << 8) | ((card + 1) & 0xFF);
+    }
+
+    /**
+     * 將座標合成一個long。
+     *
+     * @param x 傳入X座標
+     * @param y 傳入Y座標
+     * @return 傳回合成的值
+     */
+    private static long position(final float x, final float y) {
+	return ((long) Float.floatToIntBits(x) << 32) | (Float.floatToIntBits(y) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 從TableState建立不可變的牌桌狀態，堆疊順序為位置的順序。
+     *
+     * @param state 傳入牌桌狀態
+     * @return 傳回不可變的牌桌狀態
+     */
+    public static PersistentTableState of(final TableState state) {
+	PersistentTableState result = EMPTY;
+	final int size = state.getSize();
+	for (int slot = 0; slot < size; ++slot) {
+	    result = result.append(state.getCard(slot), state.getX(slot), state.getY(slot), state.getFlags(slot));
+	}
+	return result;
+    }
+
+    // -----物件常數-----
+    /**
+     * 儲存根節點。
+     */
+    private final Object root;
+    /**
+     * 儲存位置數量。
+     */
+    private final int size;
+    /**
+     * 儲存根節點所在層的位移量，只有一層時為0。
+     */
+    private final int shift;
+    /**
+     * 儲存最大的堆疊順序。
+     */
+    private final int maxOrder;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param root 傳入根節點
+     * @param size 傳入位置數量
+     * @param shift 傳入根節點所在層的位移量
+     * @param maxOrder 傳入最大的堆疊順序
+     */
+    private PersistentTableState(final Object root, final int size, final int shift, final int maxOrder) {
+	this.root = root;
+	this.size = size;
+	this.shift = shift;
+	this.maxOrder = maxOrder;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得位置所在的葉節點。
+     *
+     * @param slot 傳入位置
+     * @return 傳回葉節點
+     */
+    private Leaf leafOf(final int slot) {
+	if (slot < 0 || slot >= size) {
+	    throw new IndexOutOfBoundsException("Slot: " + slot + ", size: " + size);
+	}
+	Object node = root;
+	for (int level = shift; level > 0; level -= BITS) {
+	    node = ((Branch) node).children[(slot >>> level) & MASK];
+	}
+	return (Leaf) node;
+    }
+
+    /**
+     * 取得位置數量。
+     *
+     * @return 傳回位置數量
+     */
+    public int getSize() {
+	return size;
+    }
+
+    /**
+     * 取得位置上的牌。
+     *
+     * @param slot 傳入位置
+     * @return 傳回牌的索引值，沒有牌時傳回CardCode.NONE
+     */
+    public int getCard(final int slot) {
+	return (int) (leafOf(slot).metas[slot & MASK] & 0xFF) - 1;
+    }
+
+    /**
+     * 取得位置的旗標。
+     *
+     * @param slot 傳入位置
+     * @return 傳回旗標，參考TableState的FLAG_*
+     */
+    public int getFlags(final int slot) {
+	return (int) (leafOf(slot).metas[slot & MASK] >>> 8) & 0xFF;
+    }
+
+    /**
+     * 判斷位置上的牌是否顯示背面。
+     *
+     * @param slot 傳入位置
+     * @return 傳回牌是否顯示背面
+     */
+    public boolean isBack(final int slot) {
+	return (getFlags(slot) & TableState.FLAG_BACK) != 0;
+    }
+
+    /**
+     * 判斷位置上的牌是否被選取。
+     *
+     * @param slot 傳入位置
+     * @return 傳回牌是否被選取
+     */
+    public boolean isSelected(final int slot) {
+	return (getFlags(slot) & TableState.FLAG_SELECTED) != 0;
+    }
+
+    /**
+     * 取得位置的堆疊順序，數值越大越上面。
+     *
+     * @param slot 傳入位置
+     * @return 傳回堆疊順序
+     */
+    public int getOrder(final int slot) {
+	return (int) (leafOf(slot).metas[slot & MASK] >>> 32);
+    }
+
+    /**
+     * 取得位置的X座標。
+     *
+     * @param slot 傳入位置
+     * @return 傳回X座標
+     */
+    public float getX(final int slot) {
+	return Float.intBitsToFloat((int) (leafOf(slot).positions[slot & MASK] >>> 32));
+    }
+
+    /**
+     * 取得位置的Y座標。
+     *
+     * @param slot 傳入位置
+     * @return 傳回Y座標
+     */
+    public float getY(final int slot) {
+	return Float.intBitsToFloat((int) leafOf(slot).positions[slot & MASK]);
+    }
+
+    /**
+     * 取得最大的堆疊順序。
+     *
+     * @return 傳回最大的堆疊順序
+     */
+    public int getMaxOrder() {
+	return maxOrder;
+    }
+
+    /**
+     * 設定某個位置的資料，只複製從根到該位置的路徑，缺少的節點會被建立。
+     *
+     * @param node 傳入目前的節點，可以為null
+     * @param level 傳入節點所在層的位移量
+     * @param slot 傳入位置
+     * @param meta 傳入牌、旗標與堆疊順序
+     * @param position 傳入座標
+     * @return 傳回新的節點
+     */
+    private static Object set(final Object node, final int level, final int slot, final long meta, final long position) {
+	final int i = (slot >>> level) & MASK;
+	if (level == 0) {
+	    final Leaf leaf = (Leaf) node;
+	    final long[] metas = leaf == null ? new long[WIDTH] : leaf.metas.clone();
+	    final long[] positions = leaf == null ? new long[WIDTH] : leaf.positions.clone();
+	    metas[i] = meta;
+	    positions[i] = position;
+	    return new Leaf(metas, positions);
+	}
+	final Branch branch = (Branch) node;
+	final Object[] children = branch == null ? new Object[WIDTH] : branch.children.clone();
+	children[i] = set(children[i], level - BITS, slot, meta, position);
+	return new Branch(children);
+    }
+
+    /**
+     * 設定某個位置的資料，內容沒有改變時傳回自己。
+     *
+     * @param slot 傳入位置
+     * @param meta 傳入牌、旗標與堆疊順序
+     * @param position 傳入座標
+     * @return 傳回新的狀態
+     */
+    private PersistentTableState with(final int slot, final long meta, final long position) {
+	final Leaf leaf = leafOf(slot);
+	if (leaf.metas[slot & MASK] == meta && leaf.positions[slot & MASK] == position) {
+	    return this;
+	}
+	final int order = (int) (meta >>> 32);
+	return new PersistentTableState(set(root, shift, slot, meta, position), size, shift, Math.max(maxOrder, order));
+    }
+
+    /**
+     * 設定位置的所有資料。
+     *
+     * @param slot 傳入位置
+     * @param card 傳入牌的索引值，CardCode.NONE表示沒有牌
+     * @param x 傳入X座標
+     * @param y 傳入Y座標
+     * @param flags 傳入旗標
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState with(final int slot, final int card, final float x, final float y, final int flags) {
+	return with(slot, meta(card, flags, getOrder(slot)), position(x, y));
+    }
+
+    /**
+     * 設定位置上的牌。
+     *
+     * @param slot 傳入位置
+     * @param card 傳入牌的索引值，CardCode.NONE表示沒有牌
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState withCard(final int slot, final int card) {
+	final Leaf leaf = leafOf(slot);
+	final long meta = leaf.metas[slot & MASK];
+	return with(slot, (meta & ~0xFFL) | ((card + 1) & 0xFF), leaf.positions[slot & MASK]);
+    }
+
+    /**
+     * 設定位置的座標。
+     *
+     * @param slot 傳入位置
+     * @param x 傳入X座標
+     * @param y 傳入Y座標
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState withPosition(final int slot, final float x, final float y) {
+	return with(slot, leafOf(slot).metas[slot & MASK], position(x, y));
+    }
+
+    /**
+     * 設定位置的旗標。
+     *
+     * @param slot 傳入位置
+     * @param flags 傳入旗標，參考TableState的FLAG_*
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState withFlags(final int slot, final int flags) {
+	final Leaf leaf = leafOf(slot);
+	final long meta = leaf.metas[slot & MASK];
+	return with(slot, (meta & ~0xFF00L) | ((flags & 0xFF) << 8), leaf.positions[slot & MASK]);
+    }
+
+    /**
+     * 設定位置上的牌是否顯示背面。
+     *
+     * @param slot 傳入位置
+     * @param back 傳入牌是否顯示背面
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState withBack(final int slot, final boolean back) {
+	final int flags = getFlags(slot);
+	return withFlags(slot, back ? flags | TableState.FLAG_BACK : flags & ~TableState.FLAG_BACK);
+    }
+
+    /**
+     * 設定位置上的牌是否被選取。
+     *
+     * @param slot 傳入位置
+     * @param select 傳入牌是否被選取
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState withSelected(final int slot, final boolean select) {
+	final int flags = getFlags(slot);
+	return withFlags(slot, select ? flags | TableState.FLAG_SELECTED : flags & ~TableState.FLAG_SELECTED);
+    }
+
+    /**
+     * 設定位置的堆疊順序。
+     *
+     * @param slot 傳入位置
+     * @param order 傳入堆疊順序，數值越大越上面
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState withOrder(final int slot, final int order) {
+	final Leaf leaf = leafOf(slot);
+	final long meta = leaf.metas[slot & MASK];
+	return with(slot, (meta & 0xFFFFFFFFL) | ((long) order << 32), leaf.positions[slot & MASK]);
+    }
+
+    /**
+     * 將位置上的牌移到最上面。
+     *
+     * @param slot 傳入位置
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState toFront(final int slot) {
+	if (getOrder(slot) == maxOrder && maxOrder > 0) {
+	    return this;
+	}
+	return withOrder(slot, maxOrder + 1);
+    }
+
+    /**
+     * 在最後面加入一個位置，牌會放在最上面。
+     *
+     * @param card 傳入牌的索引值，CardCode.NONE表示沒有牌
+     * @param x 傳入X座標
+     * @param y 傳入Y座標
+     * @param flags 傳入旗標
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState append(final int card, final float x, final float y, final int flags) {
+	final int order = maxOrder + 1;
+	final long meta = meta(card, flags, order);
+	final long position = position(x, y);
+	if (size == 1 << (shift + BITS)) {
+	    //樹已經滿了，增加一層
+	    final Object[] children = new Object[WIDTH];
+	    children[0] = root;
+	    final int newShift = shift + BITS;
+	    return new PersistentTableState(set(new Branch(children), newShift, size, meta, position), size + 1, newShift, order);
+	}
+	return new PersistentTableState(set(root, shift, size, meta, position), size + 1, shift, order);
+    }
+
+    /**
+     * 移除最後一個位置。
+     *
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState removeLast() {
+	if (size == 0) {
+	    throw new IllegalStateException("The table is empty.");
+	}
+	//清除資料讓共用的節點內容保持一致，最大的堆疊順序不變
+	return new PersistentTableState(set(root, shift, size - 1, meta(CardCode.NONE, 0, 0), 0), size - 1, shift, maxOrder);
+    }
+
+    /**
+     * 將狀態複製到TableState中，堆疊順序不會被複製。
+     *
+     * @param state 傳入牌桌狀態
+     */
+    public void copyTo(final TableState state) {
+	state.setSize(size);
+	for (int slot = 0; slot < size; ++slot) {
+	    final Leaf leaf = leafOf(slot);
+	    final long meta = leaf.metas[slot & MASK];
+	    final long position = leaf.positions[slot & MASK];
+	    state.setCard(slot, (int) (meta & 0xFF) - 1);
+	    state.setFlags(slot, (int) (meta >>> 8) & 0xFF);
+	    state.setPosition(slot, Float.intBitsToFloat((int) (position >>> 32)), Float.intBitsToFloat((int) position));
+	}
+    }
+
+    /**
+     * 比較這個狀態與另一個狀態，通知從這個狀態變成另一個狀態時改變的位置。共用的節點會直接跳過。
+     *
+     * @param other 傳入另一個狀態
+     * @param handler 傳入接收差異的介面
+     */
+    public void diff(final PersistentTableState other, final DiffHandler handler) {
+	final int common = Math.min(size, other.size);
+	if (common > 0 && root != other.root) {
+	    //樹的高度不同時，較高的樹的共同部分都在最左邊的子樹中
+	    Object a = root, b = other.root;
+	    int level = Math.min(shift, other.shift);
+	    for (int s = shift; s > level; s -= BITS) {
+		a = ((Branch) a).children[0];
+	    }
+	    for (int s = other.shift; s > level; s -= BITS) {
+		b = ((Branch) b).children[0];
+	    }
+	    diff(a, b, level, 0, common, handler);
+	}
+	for (int slot = common; slot < other.size; ++slot) {
+	    handler.slotChanged(slot, ADDED);
+	}
+	for (int slot = common; slot < size; ++slot) {
+	    handler.slotChanged(slot, REMOVED);
+	}
+    }
+
+    /**
+     * 比較兩個節點。
+     *
+     * @param a 傳入這個狀態的節點
+     * @param b 傳入另一個狀態的節點
+     * @param level 傳入節點所在層的位移量
+     * @param base 傳入節點的第一個位置
+     * @param limit 傳入要比較的位置上限(不包含)
+     * @param handler 傳入接收差異的介面
+     */
+    private static void diff(final Object a, final Object b, final int level, final int base, final int limit, final DiffHandler handler) {
+	if (a == b) {
+	    return;
+	}
+	if (level == 0) {
+	    final Leaf la = (Leaf) a, lb = (Leaf) b;
+	    final int count = Math.min(WIDTH, limit - base);
+	    for (int i = 0; i < count; ++i) {
+		final long ma = la.metas[i], mb = lb.metas[i];
+		int changes = 0;
+		if (((ma ^ mb) & 0xFFL) != 0) {
+		    changes |= CHANGED_CARD;
+		}
+		if (((ma ^ mb) & 0xFF00L) != 0) {
+		    changes |= CHANGED_FLAGS;
+		}
+		if (((ma ^ mb) >>> 32) != 0) {
+		    changes |= CHANGED_ORDER;
+		}
+		if (la.positions[i] != lb.positions[i]) {
+		    changes |= CHANGED_POSITION;
+		}
+		if (changes != 0) {
+		    handler.slotChanged(base + i, changes);
+		}
+	    }
+	    return;
+	}
+	final Object[] ca = ((Branch) a).children, cb = ((Branch) b).children;
+	final int step = 1 << level;
+	for (int i = 0; i < WIDTH; ++i) {
+	    final int childBase = base + i * step;
+	    if (childBase >= limit) {
+		break;
+	    }
+	    diff(ca[i], cb[i], level - BITS, childBase, limit, handler);
+	}
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.util.ArrayList;
+
+/**
+ * <p>
+ * 牌桌狀態的歷史紀錄，提供沒有次數限制的復原/重做，以及回放時跳到任意一步。
+ * </p>
+ * <p>
+ * 每一步只保存一個PersistentTableState的參考，狀態之間共用沒有改變的節點，因此長時間的牌局也只需要和修改次數成正比的記憶體。此類別不是執行緒安全的。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class TableHistory {
+
+    // -----物件常數-----
+    /**
+     * 儲存每一步的狀態。
+     */
+    private final ArrayList<PersistentTableState> states = new ArrayList<>();
+
+    // -----物件變數-----
+    /**
+     * 儲存目前所在的步數。
+     */
+    private int cursor;
+
+    // -----建構子-----
+    /**
+     * 建構子，從空的牌桌開始。
+     */
+    public TableHistory() {
+	this(PersistentTableState.EMPTY);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param initial 傳入最初的狀態
+     */
+    public TableHistory(final PersistentTableState initial) {
+	states.add(initial);
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得目前的狀態。
+     *
+     * @return 傳回目前的狀態
+     */
+    public PersistentTableState getCurrent() {
+	return states.get(cursor);
+    }
+
+    /**
+     * 加入新的一步，會清除可以重做的步驟。狀態沒有改變時不做任何事。
+     *
+     * @param state 傳入新的狀態
+     * @return 傳回新的狀態
+     */
+    public PersistentTableState push(final PersistentTableState state) {
+	if (state == getCurrent()) {
+	    return state;
+	}
+	states.subList(cursor + 1, states.size()).clear();
+	states.add(state);
+	++cursor;
+	return state;
+    }
+
+    /**
+     * 判斷是否可以復原。
+     *
+     * @return 傳回是否可以復原
+     */
+    public boolean canUndo() {
+	return cursor > 0;
+    }
+
+    /**
+     * 判斷是否可以重做。
+     *
+     * @return 傳回是否可以重做
+     */
+    public boolean canRedo() {
+	return cursor < states.size() - 1;
+    }
+
+    /**
+     * 復原一步。
+     *
+     * @return 傳回復原後的狀態，若無法復原，傳回目前的狀態
+     */
+    public PersistentTableState undo() {
+	if (canUndo()) {
+	    --cursor;
+	}
+	return getCurrent();
+    }
+
+    /**
+     * 重做一步。
+     *
+     * @return 傳回重做後的狀態，若無法重做，傳回目前的狀態
+     */
+    public PersistentTableState redo() {
+	if (canRedo()) {
+	    ++cursor;
+	}
+	return getCurrent();
+    }
+
+    /**
+     * 跳到某一步，用於回放時拖曳進度。
+     *
+     * @param step 傳入步數，0為最初的狀態
+     * @return 傳回該步的狀態
+     */
+    public PersistentTableState seek(final int step) {
+	if (step < 0 || step >= states.size()) {
+	    throw new IndexOutOfBoundsException("Step: " + step + ", size: " + states.size());
+	}
+	cursor = step;
+	return getCurrent();
+    }
+
+    /**
+     * 取得某一步的狀態，不會改變目前所在的步數。
+     *
+     * @param step 傳入步數，0為最初的狀態
+     * @return 傳回該步的狀態
+     */
+    public PersistentTableState get(final int step) {
+	return states.get(step);
+    }
+
+    /**
+     * 取得目前所在的步數。
+     *
+     * @return 傳回步數
+     */
+    public int getCursor() {
+	return cursor;
+    }
+
+    /**
+     * 取得總步數(包含最初的狀態)。
+     *
+     * @return 傳回總步數
+     */
+    public int size() {
+	return states.size();
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.util.Arrays;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.PlayingCard;
+
+/**
+ * <p>
+ * 牌桌狀態。
+ * </p>
+ * <p>
+ * 牌桌由多個位置(slot)組成，每個位置存放一張牌的索引值(參考CardCode)、座標，以及是否顯示背面、是否被選取的旗標，旗標與PlayingCard的isBack()、isSelected()相同。
+ * </p>
+ * <p>
+ * 所有資料都以基本型態的陣列儲存，適合用來快速比較與複製。此類別不是執行緒安全的。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class TableState {
+
+    // -----類別常數-----
+    /**
+     * 旗標：顯示背面。
+     */
+    public static final int FLAG_BACK = 1;
+    /**
+     * 旗標：被選取。
+     */
+    public static final int FLAG_SELECTED = 2;
+    /**
+     * 預設的位置數量。
+     */
+    private static final int DEFAULT_CAPACITY = 54;
+
+    // -----物件變數-----
+    /**
+     * 儲存位置數量。
+     */
+    private int size;
+    /**
+     * 儲存每個位置的牌的索引值，沒有牌時為CardCode.NONE。
+     */
+    private int[] cards;
+    /**
+     * 儲存每個位置的X座標。
+     */
+    private float[] xs;
+    /**
+     * 儲存每個位置的Y座標。
+     */
+    private float[] ys;
+    /**
+     * 儲存每個位置的旗標。
+     */
+    private byte[] flags;
+
+    // -----建構子-----
+    /**
+     * 建構子，建立空的牌桌。
+     */
+    public TableState() {
+	this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 建構子，建立空的牌桌。
+     *
+     * @param capacity 傳入預先配置的位置數量
+     */
+    public TableState(final int capacity) {
+	cards = new int[capacity];
+	xs = new float[capacity];
+	ys = new float[capacity];
+	flags = new byte[capacity];
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得位置數量。
+     *
+     * @return 傳回位置數量
+     */
+    public int getSize() {
+	return size;
+    }
+
+    /**
+     * 設定位置數量。新增的位置沒有牌。
+     *
+     * @param size 傳入位置數量
+     */
+    public void setSize(final int size) {
+	if (size > cards.length) {
+	    final int capacity = Math.max(size, cards.length << 1);
+	    cards = Arrays.copyOf(cards, capacity);
+	    xs = Arrays.copyOf(xs, capacity);
+	    ys = Arrays.copyOf(ys, capacity);
+	    flags = Arrays.copyOf(flags, capacity);
+	}
+	for (int i = this.size; i < size; ++i) {
+	    cards[i] = CardCode.NONE;
+	    xs[i] = 0;
+	    ys[i] = 0;
+	    flags[i] = 0;
+	}
+	this.size = size;
+    }
+
+    /**
+     * 取得位置上的牌。
+     *
+     * @param slot 傳入位置
+     * @return 傳回牌的索引值，沒有牌時傳回CardCode.NONE
+     */
+    public int getCard(final int slot) {
+	return cards[slot];
+    }
+
+    /**
+     * 設定位置上的牌。
+     *
+     * @param slot 傳入位置
+     * @param card 傳入牌的索引值，CardCode.NONE表示沒有牌
+     */
+    public void setCard(final int slot, final int card) {
+	cards[slot] = card;
+    }
+
+    /**
+     * 取得位置的X座標。
+     *
+     * @param slot 傳入位置
+     * @return 傳回X座標
+     */
+    public float getX(final int slot) {
+	return xs[slot];
+    }
+
+    /**
+     * 取得位置的Y座標。
+     *
+     * @param slot 傳入位置
+     * @return 傳回Y座標
+     */
+    public float getY(final int slot) {
+	return ys[slot];
+    }
+
+    /**
+     * 設定位置的座標。
+     *
+     * @param slot 傳入位置
+     * @param x 傳入X座標
+     * @param y 傳入Y座標
+     */
+    public void setPosition(final int slot, final float x, final float y) {
+	xs[slot] = x;
+	ys[slot] = y;
+    }
+
+    /**
+     * 取得位置的旗標。
+     *
+     * @param slot 傳入位置
+     * @return 傳回旗標
+     */
+    public int getFlags(final int slot) {
+	return flags[slot];
+    }
+
+    /**
+     * 設定位置的旗標。
+     *
+     * @param slot 傳入位置
+     * @param flags 傳入旗標
+     */
+    public void setFlags(final int slot, final int flags) {
+	this.flags[slot] = (byte) flags;
+    }
+
+    /**
+     * 判斷位置上的牌是否顯示背面。
+     *
+     * @param slot 傳入位置
+     * @return 傳回牌是否顯示背面
+     */
+    public boolean isBack(final int slot) {
+	return (flags[slot] & FLAG_BACK) != 0;
+    }
+
+    /**
+     * 設定位置上的牌是否顯示背面。
+     *
+     * @param slot 傳入位置
+     * @param back 傳入牌是否顯示背面
+     */
+    public void setBack(final int slot, final boolean back) {
+	setFlag(slot, FLAG_BACK, back);
+    }
+
+    /**
+     * 判斷位置上的牌是否被選取。
+     *
+     * @param slot 傳入位置
+     * @return 傳回牌是否被選取
+     */
+    public boolean isSelected(final int slot) {
+	return (flags[slot] & FLAG_SELECTED) != 0;
+    }
+
+    /**
+     * 設定位置上的牌是否被選取。
+     *
+     * @param slot 傳入位置
+     * @param select 傳入牌是否被選取
+     */
+    public void setSelected(final int slot, final boolean select) {
+	setFlag(slot, FLAG_SELECTED, select);
+    }
+
+    /**
+     * 設定或清除某個旗標。
+     *
+     * @param slot 傳入位置
+     * @param flag 傳入旗標
+     * @param value 傳入是否設定
+     */
+    private void setFlag(final int slot, final int flag, final boolean value) {
+	flags[slot] = (byte) (value ? flags[slot] | flag : flags[slot] & ~flag);
+    }
+
+    /**
+     * 將撲克牌物件的狀態存入位置中。
+     *
+     * @param slot 傳入位置
+     * @param card 傳入撲克牌
+     * @param x 傳入X座標
+     * @param y 傳入Y座標
+     */
+    public void set(final int slot, final PlayingCard card, final float x, final float y) {
+	cards[slot] = CardCode.indexOf(card);
+	xs[slot] = x;
+	ys[slot] = y;
+	flags[slot] = (byte) ((card.isBack() ? FLAG_BACK : 0) | (card.isSelected() ? FLAG_SELECTED : 0));
+    }
+
+    /**
+     * 將位置的狀態套用到撲克牌物件上，套用後需自行呼叫resetCanvas()重繪。
+     *
+     * @param slot 傳入位置
+     * @param card 傳入撲克牌
+     */
+    public void applyTo(final int slot, final PlayingCard card) {
+	final int index = cards[slot];
+	if (index != CardCode.NONE) {
+	    card.setCard(CardCode.suitOf(index), CardCode.faceOf(index));
+	}
+	card.setBack(isBack(slot));
+	card.setSelected(isSelected(slot));
+    }
+
+    /**
+     * 判斷兩個位置的內容是否相同。
+     *
+     * @param slot 傳入這個牌桌的位置
+     * @param other 傳入另一個牌桌
+     * @param otherSlot 傳入另一個牌桌的位置
+     * @return 傳回兩個位置的內容是否相同
+     */
+    public boolean slotEquals(final int slot, final TableState other, final int otherSlot) {
+	return cards[slot] == other.cards[otherSlot] && flags[slot] == other.flags[otherSlot]
+		&& Float.floatToIntBits(xs[slot]) == Float.floatToIntBits(other.xs[otherSlot])
+		&& Float.floatToIntBits(ys[slot]) == Float.floatToIntBits(other.ys[otherSlot]);
+    }
+
+    /**
+     * 複製另一個牌桌的狀態。
+     *
+     * @param other 傳入另一個牌桌
+     */
+    public void copyFrom(final TableState other) {
+	setSize(other.size);
+	System.arraycopy(other.cards, 0, cards, 0, other.size);
+	System.arraycopy(other.xs, 0, xs, 0, other.size);
+	System.arraycopy(other.ys, 0, ys, 0, other.size);
+	System.arraycopy(other.flags, 0, flags, 0, other.size);
+    }
+}
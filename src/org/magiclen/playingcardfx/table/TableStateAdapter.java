@@ -0,0 +1,238 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.PlayingCard;
+
+/**
+ * <p>
+ * 將PersistentTableState顯示在Pane上的轉接器。
+ * </p>
+ * <p>
+ * 每個位置對應一張PlayingCard。切換狀態(例如復原、重做、回放)時，只比較新舊狀態的差異：牌或旗標改變的位置才重繪，只有座標改變的位置只移動，堆疊順序改變時才重新排列，沒有改變的牌完全不會被碰到。
+ * </p>
+ * <p>
+ * 因為PlayingCard以花色和牌值判斷是否相等，同一個Parent中不能放兩張相同的牌，所以每張牌都包在一個Group中，使多副牌的牌桌也可以顯示。轉接器會管理Pane的所有子節點。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class TableStateAdapter {
+
+    // -----物件常數-----
+    /**
+     * 儲存顯示牌的容器。
+     */
+    private final Pane pane;
+    /**
+     * 儲存牌的尺寸倍率。
+     */
+    private final double sizeRate;
+    /**
+     * 儲存每個位置的牌。
+     */
+    private final ArrayList<PlayingCard> cards = new ArrayList<>();
+    /**
+     * 儲存每個位置包住牌的節點。
+     */
+    private final ArrayList<Group> holders = new ArrayList<>();
+    /**
+     * 接收差異的介面。
+     */
+    private final PersistentTableState.DiffHandler handler = this::apply;
+
+    // -----物件變數-----
+    /**
+     * 儲存目前顯示的狀態。
+     */
+    private PersistentTableState shown = PersistentTableState.EMPTY;
+    /**
+     * 儲存這次更新中堆疊順序改變的位置數量。
+     */
+    private int reordered;
+    /**
+     * 儲存這次更新中最後一個堆疊順序改變的位置。
+     */
+    private int lastReordered;
+    /**
+     * 儲存重繪的次數。
+     */
+    private long redrawCount;
+    /**
+     * 儲存移動的次數。
+     */
+    private long moveCount;
+
+    // -----建構子-----
+    /**
+     * 建構子。
+     *
+     * @param pane 傳入顯示牌的容器
+     * @param sizeRate 傳入牌的尺寸倍率
+     */
+    public TableStateAdapter(final Pane pane, final double sizeRate) {
+	this.pane = pane;
+	this.sizeRate = sizeRate;
+    }
+
+    // -----物件方法-----
+    /**
+     * 顯示新的狀態，只更新有改變的牌。
+     *
+     * @param state 傳入新的狀態
+     */
+    public void show(final PersistentTableState state) {
+	final PersistentTableState previous = shown;
+	if (previous == state) {
+	    return;
+	}
+	shown = state;
+	reordered = 0;
+	previous.diff(state, handler);
+
+	final int size = state.getSize();
+	if (holders.size() > size) {
+	    pane.getChildren().removeAll(holders.subList(size, holders.size()));
+	    holders.subList(size, holders.size()).clear();
+	    cards.subList(size, cards.size()).clear();
+	}
+
+	if (reordered == 1 && state.getOrder(lastReordered) == state.getMaxOrder()) {
+	    //最常見的情況：把一張牌移到最上面
+	    holders.get(lastReordered).toFront();
+	} else if (reordered > 0) {
+	    final long[] keys = new long[size];
+	    for (int slot = 0; slot < size; ++slot) {
+		keys[slot] = ((long) state.getOrder(slot) << 32) | slot;
+	    }
+	    Arrays.sort(keys);
+	    final Node[] ordered = new Node[size];
+	    for (int i = 0; i < size; ++i) {
+		ordered[i] = holders.get((int) keys[i]);
+	    }
+	    pane.getChildren().setAll(ordered);
+	}
+    }
+
+    /**
+     * 套用一個位置的改變。
+     *
+     * @param slot 傳入位置
+     * @param changes 傳入改變的項目
+     */
+    private void apply(final int slot, final int changes) {
+	if ((changes & PersistentTableState.REMOVED) != 0) {
+	    return;
+	}
+	if ((changes & PersistentTableState.ADDED) != 0) {
+	    final PlayingCard card = new PlayingCard();
+	    card.setSize(sizeRate);
+	    final Group holder = new Group(card);
+	    cards.add(card);
+	    holders.add(holder);
+	    pane.getChildren().add(holder);
+	    redraw(slot);
+	    move(slot);
+	    ++reordered;
+	    lastReordered = slot;
+	    return;
+	}
+	if ((changes & (PersistentTableState.CHANGED_CARD | PersistentTableState.CHANGED_FLAGS)) != 0) {
+	    redraw(slot);
+	}
+	if ((changes & PersistentTableState.CHANGED_POSITION) != 0) {
+	    move(slot);
+	}
+	if ((changes & PersistentTableState.CHANGED_ORDER) != 0) {
+	    ++reordered;
+	    lastReordered = slot;
+	}
+    }
+
+    /**
+     * 依照目前的狀態重繪位置上的牌。
+     *
+     * @param slot 傳入位置
+     */
+    private void redraw(final int slot) {
+	final int index = shown.getCard(slot);
+	final PlayingCard card = cards.get(slot);
+	holders.get(slot).setVisible(index != CardCode.NONE);
+	if (index == CardCode.NONE) {
+	    return;
+	}
+	card.setCard(CardCode.suitOf(index), CardCode.faceOf(index));
+	card.setBack(shown.isBack(slot));
+	card.setSelected(shown.isSelected(slot));
+	card.resetCanvas();
+	++redrawCount;
+    }
+
+    /**
+     * 依照目前的狀態移動位置上的牌。
+     *
+     * @param slot 傳入位置
+     */
+    private void move(final int slot) {
+	holders.get(slot).relocate(shown.getX(slot), shown.getY(slot));
+	++moveCount;
+    }
+
+    /**
+     * 取得目前顯示的狀態。
+     *
+     * @return 傳回目前顯示的狀態
+     */
+    public PersistentTableState getShown() {
+	return shown;
+    }
+
+    /**
+     * 取得位置上的牌，例如用來綁定主題或設定圖片快取。
+     *
+     * @param slot 傳入位置
+     * @return 傳回撲克牌
+     */
+    public PlayingCard getCard(final int slot) {
+	return cards.get(slot);
+    }
+
+    /**
+     * 取得重繪的次數。
+     *
+     * @return 傳回重繪的次數
+     */
+    public long getRedrawCount() {
+	return redrawCount;
+    }
+
+    /**
+     * 取得移動的次數。
+     *
+     * @return 傳回移動的次數
+     */
+    public long getMoveCount() {
+	return moveCount;
+    }
+}
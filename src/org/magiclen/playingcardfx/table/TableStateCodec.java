@@ -0,0 +1,256 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.nio.ByteBuffer;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+
+/**
+ * <p>
+ * 牌桌狀態的二進位編碼器。
+ * </p>
+ * <p>
+ * 每個訊框(frame)的格式為：1個位元組的類型(KEYFRAME或DELTA)、4個位元組的序號、2個位元組的位置數量、2個位元組的變更數量，之後是每個變更的位置。每個變更以2個位元組的位置編號和1個位元組的欄位遮罩開頭，遮罩中有標示的欄位才會寫入(牌為1個位元組、X座標和Y座標各為4個位元組的浮點數、旗標為1個位元組)。
+ * </p>
+ * <p>
+ * 關鍵訊框包含所有位置的完整內容；差異訊框只包含和上一個狀態不同的位置與欄位。編碼與解碼都直接在呼叫者提供的ByteBuffer上進行，不會複製到中間的陣列。同一個ByteBuffer中可以連續放置多個訊框。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public final class TableStateCodec {
+
+    // -----類別常數-----
+    /**
+     * 訊框類型：關鍵訊框。
+     */
+    public static final byte KEYFRAME = 1;
+    /**
+     * 訊框類型：差異訊框。
+     */
+    public static final byte DELTA = 2;
+    /**
+     * 訊框標頭的大小。
+     */
+    public static final int FRAME_HEADER_SIZE = 9;
+    /**
+     * 牌桌最多可以有的位置數量。
+     */
+    public static final int MAX_SIZE = 0xFFFF;
+    /**
+     * 欄位遮罩：牌。
+     */
+    private static final int FIELD_CARD = 1;
+    /**
+     * 欄位遮罩：X座標。
+     */
+    private static final int FIELD_X = 2;
+    /**
+     * 欄位遮罩：Y座標。
+     */
+    private static final int FIELD_Y = 4;
+    /**
+     * 欄位遮罩：旗標。
+     */
+    private static final int FIELD_FLAGS = 8;
+    /**
+     * 欄位遮罩：所有欄位。
+     */
+    private static final int FIELD_ALL = FIELD_CARD | FIELD_X | FIELD_Y | FIELD_FLAGS;
+    /**
+     * 單一位置變更最多需要的位元組數。
+     */
+    private static final int MAX_CHANGE_SIZE = 3 + 1 + 4 + 4 + 1;
+    /**
+     * 沒有牌時使用的位元組編碼。
+     */
+    private static final byte NO_CARD = (byte) 0xFF;
+
+    // -----類別方法-----
+    /**
+     * 計算一個訊框最多需要的位元組數。
+     *
+     * @param size 傳入位置數量
+     * @return 傳回訊框最多需要的位元組數
+     */
+    public static int maxFrameSize(final int size) {
+	return FRAME_HEADER_SIZE + size * MAX_CHANGE_SIZE;
+    }
+
+    /**
+     * 編碼關鍵訊框。
+     *
+     * @param sequence 傳入訊框序號
+     * @param state 傳入牌桌狀態
+     * @param out 傳入輸出的緩衝區
+     */
+    public static void encodeKeyframe(final int sequence, final TableState state, final ByteBuffer out) {
+	final int size = checkSize(state);
+	out.put(KEYFRAME);
+	out.putInt(sequence);
+	out.putShort((short) size);
+	out.putShort((short) size);
+	for (int slot = 0; slot < size; ++slot) {
+	    putChange(out, state, slot, FIELD_ALL);
+	}
+    }
+
+    /**
+     * 編碼差異訊框。
+     *
+     * @param sequence 傳入訊框序號
+     * @param previous 傳入上一個牌桌狀態
+     * @param current 傳入目前的牌桌狀態
+     * @param out 傳入輸出的緩衝區
+     * @return 傳回變更的位置數量
+     */
+    public static int encodeDelta(final int sequence, final TableState previous, final TableState current, final ByteBuffer out) {
+	final int size = checkSize(current);
+	final int previousSize = previous.getSize();
+	final int start = out.position();
+	out.put(DELTA);
+	out.putInt(sequence);
+	out.putShort((short) size);
+	out.putShort((short) 0); //稍後填入變更數量
+	int changes = 0;
+	for (int slot = 0; slot < size; ++slot) {
+	    final int mask;
+	    if (slot >= previousSize) {
+		mask = FIELD_ALL;
+	    } else {
+		mask = (current.getCard(slot) != previous.getCard(slot) ? FIELD_CARD : 0)
+			| (Float.floatToIntBits(current.getX(slot)) != Float.floatToIntBits(previous.getX(slot)) ? FIELD_X : 0)
+			| (Float.floatToIntBits(current.getY(slot)) != Float.floatToIntBits(previous.getY(slot)) ? FIELD_Y : 0)
+			| (current.getFlags(slot) != previous.getFlags(slot) ? FIELD_FLAGS : 0);
+	    }
+	    if (mask != 0) {
+		putChange(out, current, slot, mask);
+		++changes;
+	    }
+	}
+	out.putShort(start + 7, (short) changes);
+	return changes;
+    }
+
+    /**
+     * 解碼一個訊框，並套用到牌桌狀態上。
+     *
+     * @param in 傳入輸入的緩衝區，位置必須在訊框的開頭
+     * @param state 傳入要套用的牌桌狀態，若為null，則只跳過這個訊框
+     * @return 傳回訊框類型
+     */
+    public static byte decode(final ByteBuffer in, final TableState state) {
+	final byte type = in.get();
+	if (type != KEYFRAME && type != DELTA) {
+	    throw new IllegalArgumentException("Invalid frame type: " + type);
+	}
+	in.getInt(); //序號，由peekSequence取得
+	final int size = in.getShort() & 0xFFFF;
+	final int changes = in.getShort() & 0xFFFF;
+	if (state != null) {
+	    state.setSize(size);
+	}
+	for (int i = 0; i < changes; ++i) {
+	    final int slot = in.getShort() & 0xFFFF;
+	    final int mask = in.get();
+	    if (state == null) {
+		in.position(in.position() + ((mask & FIELD_CARD) != 0 ? 1 : 0) + ((mask & FIELD_X) != 0 ? 4 : 0) + ((mask & FIELD_Y) != 0 ? 4 : 0) + ((mask & FIELD_FLAGS) != 0 ? 1 : 0));
+		continue;
+	    }
+	    if ((mask & FIELD_CARD) != 0) {
+		final byte card = in.get();
+		state.setCard(slot, card == NO_CARD ? CardCode.NONE : CardCode.fromByte(card));
+	    }
+	    final float x = (mask & FIELD_X) != 0 ? in.getFloat() : state.getX(slot);
+	    final float y = (mask & FIELD_Y) != 0 ? in.getFloat() : state.getY(slot);
+	    state.setPosition(slot, x, y);
+	    if ((mask & FIELD_FLAGS) != 0) {
+		state.setFlags(slot, in.get());
+	    }
+	}
+	return type;
+    }
+
+    /**
+     * 取得緩衝區目前位置上的訊框類型，不移動緩衝區的位置。
+     *
+     * @param in 傳入輸入的緩衝區
+     * @return 傳回訊框類型
+     */
+    public static byte peekType(final ByteBuffer in) {
+	return in.get(in.position());
+    }
+
+    /**
+     * 取得緩衝區目前位置上的訊框序號，不移動緩衝區的位置。
+     *
+     * @param in 傳入輸入的緩衝區
+     * @return 傳回訊框序號
+     */
+    public static int peekSequence(final ByteBuffer in) {
+	return in.getInt(in.position() + 1);
+    }
+
+    /**
+     * 檢查位置數量是否可以被編碼。
+     *
+     * @param state 傳入牌桌狀態
+     * @return 傳回位置數量
+     */
+    private static int checkSize(final TableState state) {
+	final int size = state.getSize();
+	if (size > MAX_SIZE) {
+	    throw new IllegalArgumentException("Too many slots: " + size);
+	}
+	return size;
+    }
+
+    /**
+     * 寫入一個位置的變更。
+     *
+     * @param out 傳入輸出的緩衝區
+     * @param state 傳入牌桌狀態
+     * @param slot 傳入位置
+     * @param mask 傳入欄位遮罩
+     */
+    private static void putChange(final ByteBuffer out, final TableState state, final int slot, final int mask) {
+	out.putShort((short) slot);
+	out.put((byte) mask);
+	if ((mask & FIELD_CARD) != 0) {
+	    final int card = state.getCard(slot);
+	    out.put(card == CardCode.NONE ? NO_CARD : CardCode.toByte(card));
+	}
+	if ((mask & FIELD_X) != 0) {
+	    out.putFloat(state.getX(slot));
+	}
+	if ((mask & FIELD_Y) != 0) {
+	    out.putFloat(state.getY(slot));
+	}
+	if ((mask & FIELD_FLAGS) != 0) {
+	    out.put((byte) state.getFlags(slot));
+	}
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private TableStateCodec() {
+
+    }
+}
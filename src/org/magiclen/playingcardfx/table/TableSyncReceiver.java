@@ -0,0 +1,114 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * 牌桌狀態的接收端。
+ * </p>
+ * <p>
+ * 將收到的訊框套用到牌桌狀態上。在收到第一個關鍵訊框之前，或是發現序號跳號(遺失訊框)之後，會忽略差異訊框，直到下一個關鍵訊框為止。同步時收到重複或較舊的差異訊框會直接丟棄，不影響同步狀態；關鍵訊框則一定會套用，傳送端重新啟動、序號從頭開始時也能重新同步。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class TableSyncReceiver {
+
+    // -----物件常數-----
+    /**
+     * 儲存同步後的牌桌狀態。
+     */
+    private final TableState state;
+
+    // -----物件變數-----
+    /**
+     * 儲存上一個套用的訊框序號。
+     */
+    private int lastSequence;
+    /**
+     * 儲存是否已經同步。
+     */
+    private boolean synced;
+
+    // -----建構子-----
+    /**
+     * 建構子，建立新的牌桌狀態來接收。
+     */
+    public TableSyncReceiver() {
+	this(new TableState());
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param state 傳入要接收的牌桌狀態
+     */
+    public TableSyncReceiver(final TableState state) {
+	this.state = state;
+    }
+
+    // -----物件方法-----
+    /**
+     * 接收一批訊框。
+     *
+     * @param frames 傳入包含一個或多個訊框的緩衝區
+     * @return 傳回套用的訊框數量
+     */
+    public int receive(final ByteBuffer frames) {
+	int applied = 0;
+	while (frames.hasRemaining()) {
+	    final byte type = TableStateCodec.peekType(frames);
+	    final int sequence = TableStateCodec.peekSequence(frames);
+	    //以差值比較，序號溢位後仍然正確
+	    final int gap = sequence - lastSequence;
+	    if (type == TableStateCodec.KEYFRAME || (synced && gap == 1)) {
+		TableStateCodec.decode(frames, state);
+		lastSequence = sequence;
+		synced = true;
+		++applied;
+	    } else if (synced && gap <= 0) {
+		//重複或較舊的差異訊框，已經套用過更新的狀態
+		TableStateCodec.decode(frames, null);
+	    } else {
+		TableStateCodec.decode(frames, null);
+		synced = false;
+	    }
+	}
+	return applied;
+    }
+
+    /**
+     * 判斷是否已經和傳送端同步。
+     *
+     * @return 傳回是否已經同步
+     */
+    public boolean isSynchronized() {
+	return synced;
+    }
+
+    /**
+     * 取得同步後的牌桌狀態。
+     *
+     * @return 傳回牌桌狀態
+     */
+    public TableState getState() {
+	return state;
+    }
+}
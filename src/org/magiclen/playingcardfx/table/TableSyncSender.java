@@ -0,0 +1,174 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * 牌桌狀態的傳送端。
+ * </p>
+ * <p>
+ * 記錄上一次傳送的狀態，之後只傳送差異訊框，並每隔固定數量的訊框傳送一次關鍵訊框，讓中途加入或遺失訊框的接收端可以重新同步。
+ * </p>
+ * <p>
+ * 訊框會先累積在直接緩衝區(direct buffer)中，呼叫flush方法時才一次交給TableTransport傳送。此類別不是執行緒安全的。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class TableSyncSender {
+
+    // -----類別常數-----
+    /**
+     * 預設的關鍵訊框間隔。
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+    /**
+     * 預設的緩衝區大小。
+     */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    // -----物件常數-----
+    /**
+     * 儲存傳送方式。
+     */
+    private final TableTransport transport;
+    /**
+     * 儲存關鍵訊框間隔。
+     */
+    private final int keyframeInterval;
+    /**
+     * 儲存上一次傳送的狀態。
+     */
+    private final TableState snapshot = new TableState();
+
+    // -----物件變數-----
+    /**
+     * 儲存累積訊框的緩衝區。
+     */
+    private ByteBuffer buffer;
+    /**
+     * 儲存下一個訊框的序號。
+     */
+    private int sequence;
+    /**
+     * 儲存距離上一個關鍵訊框的訊框數。
+     */
+    private int sinceKeyframe;
+    /**
+     * 儲存下一個訊框是否必須是關鍵訊框。
+     */
+    private boolean keyframeRequested = true;
+
+    // -----建構子-----
+    /**
+     * 建構子，使用預設的關鍵訊框間隔。
+     *
+     * @param transport 傳入傳送方式
+     */
+    public TableSyncSender(final TableTransport transport) {
+	this(transport, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * 建構子。
+     *
+     * @param transport 傳入傳送方式
+     * @param keyframeInterval 傳入關鍵訊框間隔
+     */
+    public TableSyncSender(final TableTransport transport, final int keyframeInterval) {
+	if (keyframeInterval < 1) {
+	    throw new IllegalArgumentException("Invalid keyframe interval: " + keyframeInterval);
+	}
+	this.transport = transport;
+	this.keyframeInterval = keyframeInterval;
+	this.buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+    }
+
+    // -----物件方法-----
+    /**
+     * 要求下一個訊框必須是關鍵訊框，例如有新的接收端加入時。
+     */
+    public void requestKeyframe() {
+	keyframeRequested = true;
+    }
+
+    /**
+     * 將目前的狀態編碼成訊框並累積在緩衝區中。若狀態沒有變化，則不會產生訊框。
+     *
+     * @param current 傳入目前的牌桌狀態
+     * @return 傳回是否產生了訊框
+     * @throws IOException 緩衝區已滿而需要傳送時，若傳送失敗則拋出
+     */
+    public boolean append(final TableState current) throws IOException {
+	final int required = TableStateCodec.maxFrameSize(current.getSize());
+	if (buffer.remaining() < required) {
+	    flush();
+	    if (buffer.capacity() < required) {
+		buffer = ByteBuffer.allocateDirect(required);
+	    }
+	}
+	if (keyframeRequested || sinceKeyframe >= keyframeInterval) {
+	    TableStateCodec.encodeKeyframe(sequence, current, buffer);
+	    keyframeRequested = false;
+	    sinceKeyframe = 0;
+	} else {
+	    final int start = buffer.position();
+	    if (TableStateCodec.encodeDelta(sequence, snapshot, current, buffer) == 0 && current.getSize() == snapshot.getSize()) {
+		buffer.position(start); //沒有變化，捨棄這個訊框
+		return false;
+	    }
+	}
+	++sequence;
+	++sinceKeyframe;
+	snapshot.copyFrom(current);
+	return true;
+    }
+
+    /**
+     * 將累積的訊框交給TableTransport傳送。
+     *
+     * @throws IOException 傳送失敗時拋出
+     */
+    public void flush() throws IOException {
+	if (buffer.position() == 0) {
+	    return;
+	}
+	buffer.flip();
+	try {
+	    transport.send(buffer);
+	} finally {
+	    buffer.clear();
+	}
+    }
+
+    /**
+     * 將目前的狀態編碼成訊框後立即傳送。
+     *
+     * @param current 傳入目前的牌桌狀態
+     * @return 傳回是否產生了訊框
+     * @throws IOException 傳送失敗時拋出
+     */
+    public boolean send(final TableState current) throws IOException {
+	final boolean appended = append(current);
+	flush();
+	return appended;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * 傳送牌桌狀態訊框的介面。
+ * </p>
+ * <p>
+ * 傳入的緩衝區會被傳送端重複使用，實作必須在send方法返回前就處理完畢(或自行複製)。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public interface TableTransport {
+
+    /**
+     * 傳送一批訊框。
+     *
+     * @param frames 傳入包含一個或多個訊框的緩衝區，範圍為position到limit
+     * @throws IOException 傳送失敗時拋出
+     */
+    void send(ByteBuffer frames) throws IOException;
+}
@@ -0,0 +1,121 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>
+ * 簡單的PNG編碼器。
+ * </p>
+ * <p>
+ * 將ARGB像素寫成32位元RGBA的PNG檔案，不需要依賴javafx.swing與ImageIO。
+ * </p>
+ *
+ * @author Magic Len
+ */
+final class PngWriter {
+
+    // -----類別常數-----
+    /**
+     * PNG檔案的簽章。
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    // -----類別方法-----
+    /**
+     * 寫入PNG檔案。
+     *
+     * @param path 傳入檔案路徑
+     * @param argb 傳入ARGB像素，依列排列
+     * @param width 傳入寬度
+     * @param height 傳入高度
+     * @throws IOException 寫入失敗時拋出
+     */
+    static void write(final Path path, final int[] argb, final int width, final int height) throws IOException {
+	final ByteArrayOutputStream header = new ByteArrayOutputStream();
+	final DataOutputStream h = new DataOutputStream(header);
+	h.writeInt(width);
+	h.writeInt(height);
+	h.writeByte(8); //每個色彩通道8位元
+	h.writeByte(6); //RGBA
+	h.writeByte(0);
+	h.writeByte(0);
+	h.writeByte(0);
+
+	final ByteArrayOutputStream data = new ByteArrayOutputStream();
+	try (final DeflaterOutputStream out = new DeflaterOutputStream(data)) {
+	    final byte[] row = new byte[1 + width * 4];
+	    for (int y = 0; y < height; ++y) {
+		row[0] = 0; //不使用過濾器
+		for (int x = 0; x < width; ++x) {
+		    final int p = argb[y * width + x];
+		    final int i = 1 + x * 4;
+		    row[i] = (byte) (p >> 16);
+		    row[i + 1] = (byte) (p >> 8);
+		    row[i + 2] = (byte) p;
+		    row[i + 3] = (byte) (p >>> 24);
+		}
+		out.write(row);
+	    }
+	}
+
+	try (final OutputStream out = Files.newOutputStream(path)) {
+	    out.write(SIGNATURE);
+	    writeChunk(out, "IHDR", header.toByteArray());
+	    writeChunk(out, "IDAT", data.toByteArray());
+	    writeChunk(out, "IEND", new byte[0]);
+	}
+    }
+
+    /**
+     * 寫入一個PNG區塊。
+     *
+     * @param out 傳入輸出串流
+     * @param type 傳入區塊類型
+     * @param content 傳入區塊內容
+     * @throws IOException 寫入失敗時拋出
+     */
+    private static void writeChunk(final OutputStream out, final String type, final byte[] content) throws IOException {
+	final DataOutputStream d = new DataOutputStream(out);
+	final byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+	d.writeInt(content.length);
+	d.write(typeBytes);
+	d.write(content);
+	final CRC32 crc = new CRC32();
+	crc.update(typeBytes);
+	crc.update(content);
+	d.writeInt((int) crc.getValue());
+    }
+
+    // -----建構子-----
+    /**
+     * 私有的建構子，將無法被實體化。
+     */
+    private PngWriter() {
+
+    }
+}
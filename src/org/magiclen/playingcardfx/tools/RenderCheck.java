@@ -0,0 +1,367 @@
+/*
+ *
+ * Copyright 2015 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.playingcardfx.tools;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+import org.magiclen.playingcardfx.PlayingCardFX;
+import org.magiclen.playingcardfx.playingcard.CardCode;
+import org.magiclen.playingcardfx.playingcard.CardTheme;
+import org.magiclen.playingcardfx.playingcard.PlayingCard;
+
+/**
+ * <p>
+ * 撲克牌繪製的視覺回歸與效能檢查工具。
+ * </p>
+ * <p>
+ * 以多種尺寸倍率繪製每一種花色、牌值、正反面與選取狀態的組合，逐一與基準圖片做像素比對，並檢查每張牌的平均繪製時間(重繪畫布加上擷取畫面)是否超過預算。修改繪製程式後執行一次，即可同時確認正確性與效能。
+ * </p>
+ * <p>
+ * 可以在沒有螢幕的環境下以Monocle的Headless平台和軟體算圖執行：
+ * </p>
+ * <pre>
+ * java -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw \
+ *      org.magiclen.playingcardfx.tools.RenderCheck --golden=golden [--update]
+ * </pre>
+ * <p>
+ * 參數：
+ * </p>
+ * <ul>
+ * <li>--golden=目錄：基準圖片的目錄(必要)。比對失敗的圖片會存放在其中的failures目錄。</li>
+ * <li>--update：以目前的繪製結果覆寫基準圖片。沒有加上此參數時，缺少基準圖片也算是失敗。</li>
+ * <li>--sizes=0.3,0.5,1,1.5：要檢查的尺寸倍率。</li>
+ * <li>--theme=classic|four-color|high-contrast：要檢查的主題。</li>
+ * <li>--tolerance=16：單一色彩通道允許的差距(0~255)。</li>
+ * <li>--max-diff=0.002：允許超過差距的像素比例。</li>
+ * <li>--budget=16：每張牌的平均繪製時間預算(毫秒)。</li>
+ * <li>--repeat=3：計算平均繪製時間時重複繪製的次數。</li>
+ * </ul>
+ * <p>
+ * 全部通過時結束代碼為0，有任何失敗時為1，參數錯誤時為2。
+ * </p>
+ *
+ * @author Magic Len
+ */
+public class RenderCheck extends Application {
+
+    // -----類別常數-----
+    /**
+     * 結束代碼：通過。
+     */
+    private static final int EXIT_OK = 0;
+    /**
+     * 結束代碼：失敗。
+     */
+    private static final int EXIT_FAILED = 1;
+    /**
+     * 結束代碼：參數錯誤。
+     */
+    private static final int EXIT_USAGE = 2;
+
+    // -----類別變數-----
+    /**
+     * 儲存結束代碼。
+     */
+    private static volatile int exitCode = EXIT_OK;
+
+    // -----類別方法-----
+    /**
+     * 程式進入點。
+     *
+     * @param args 傳入參數
+     */
+    public static void main(final String[] args) {
+	launch(args);
+	System.exit(exitCode);
+    }
+
+    // -----物件變數-----
+    /**
+     * 儲存基準圖片的目錄。
+     */
+    private Path golden;
+    /**
+     * 儲存是否要更新基準圖片。
+     */
+    private boolean update;
+    /**
+     * 儲存要檢查的尺寸倍率。
+     */
+    private double[] sizes = {0.3, 0.5, 1, 1.5};
+    /**
+     * 儲存要檢查的主題。
+     */
+    private CardTheme theme = CardTheme.CLASSIC;
+    /**
+     * 儲存單一色彩通道允許的差距。
+     */
+    private int tolerance = 16;
+    /**
+     * 儲存允許超過差距的像素比例。
+     */
+    private double maxDiff = 0.002;
+    /**
+     * 儲存每張牌的平均繪製時間預算(毫秒)。
+     */
+    private double budget = 16;
+    /**
+     * 儲存重複繪製的次數。
+     */
+    private int repeat = 3;
+
+    // -----物件方法-----
+    /**
+     * 當應用程式執行的時候，進行檢查後結束。
+     *
+     * @param stage 傳入主要的舞台(用不到)
+     */
+    @Override
+    public void start(final Stage stage) {
+	try {
+	    if (!parseArguments(getParameters().getRaw())) {
+		exitCode = EXIT_USAGE;
+	    } else {
+		exitCode = check() ? EXIT_OK : EXIT_FAILED;
+	    }
+	} catch (final Exception e) {
+	    e.printStackTrace(System.out);
+	    exitCode = EXIT_FAILED;
+	} finally {
+	    Platform.exit();
+	}
+    }
+
+    /**
+     * 解析參數。
+     *
+     * @param args 傳入參數
+     * @return 傳回參數是否正確
+     */
+    private boolean parseArguments(final List<String> args) {
+	for (final String arg : args) {
+	    final int eq = arg.indexOf('=');
+	    final String key = eq < 0 ? arg : arg.substring(0, eq);
+	    final String value = eq < 0 ? "" : arg.substring(eq + 1);
+	    try {
+		switch (key) {
+		    case "--golden":
+			golden = Paths.get(value);
+			break;
+		    case "--update":
+			update = true;
+			break;
+		    case "--sizes":
+			sizes = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+			break;
+		    case "--theme":
+			switch (value) {
+			    case "classic":
+				theme = CardTheme.CLASSIC;
+				break;
+			    case "four-color":
+				theme = CardTheme.FOUR_COLOR;
+				break;
+			    case "high-contrast":
+				theme = CardTheme.HIGH_CONTRAST;
+				break;
+			    default:
+				System.out.println("Unknown theme: " + value);
+				return false;
+			}
+			break;
+		    case "--tolerance":
+			tolerance = Integer.parseInt(value);
+			break;
+		    case "--max-diff":
+			maxDiff = Double.parseDouble(value);
+			break;
+		    case "--budget":
+			budget = Double.parseDouble(value);
+			break;
+		    case "--repeat":
+			repeat = Math.max(1, Integer.parseInt(value));
+			break;
+		    default:
+			System.out.println("Unknown argument: " + arg);
+			return false;
+		}
+	    } catch (final NumberFormatException e) {
+		System.out.println("Invalid value: " + arg);
+		return false;
+	    }
+	}
+	if (golden == null) {
+	    System.out.println("Usage: RenderCheck --golden=DIR [--update] [--sizes=0.3,0.5,1,1.5] [--theme=classic] [--tolerance=16] [--max-diff=0.002] [--budget=16] [--repeat=3]");
+	    return false;
+	}
+	return true;
+    }
+
+    /**
+     * 進行所有的檢查。
+     *
+     * @return 傳回是否全部通過
+     * @throws IOException 讀寫圖片失敗時拋出
+     */
+    private boolean check() throws IOException {
+	final URL font = PlayingCardFX.class.getResource(PlayingCardFX.FONT_URL);
+	if (font != null) {
+	    Font.loadFont(font.toExternalForm(), 10);
+	} else {
+	    System.out.println("Font resource not found, using the default font.");
+	}
+	Files.createDirectories(golden);
+	final Path failures = golden.resolve("failures");
+
+	final PlayingCard card = new PlayingCard();
+	card.setTheme(theme);
+	final Group root = new Group(card);
+	new Scene(root, Color.TRANSPARENT);
+	final SnapshotParameters parameters = new SnapshotParameters();
+	parameters.setFill(Color.TRANSPARENT);
+
+	final List<String> failed = new ArrayList<>();
+	int checked = 0;
+	double slowest = 0;
+	String slowestName = null;
+	boolean warmedUp = false;
+	for (final double size : sizes) {
+	    card.setSize(size);
+	    root.applyCss();
+	    root.layout();
+	    final int width = (int) Math.ceil(card.getWidth());
+	    final int height = (int) Math.ceil(card.getHeight());
+	    final WritableImage image = new WritableImage(width, height);
+	    final int[] actual = new int[width * height];
+	    final int[] expected = new int[width * height];
+
+	    //除了背面只需要畫一次，每張牌都要畫正面，並各自檢查選取與未選取。大鬼和小鬼畫出來的圖形相同，只檢查小鬼
+	    for (int index = -1; index <= CardCode.SMALL_GHOST; ++index) {
+		final boolean back = index < 0;
+		final int cardIndex = back ? 0 : index;
+		card.setCard(CardCode.suitOf(cardIndex), CardCode.faceOf(cardIndex));
+		card.setBack(back);
+		for (int s = 0; s < 2; ++s) {
+		    final boolean selected = s == 1;
+		    card.setSelected(selected);
+		    final String name = String.format(Locale.ROOT, "s%03d_%s_%s", Math.round(size * 100),
+			    back ? "BACK" : CardCode.suitOf(cardIndex).name() + CardCode.faceOf(cardIndex), selected ? "selected" : "normal");
+
+		    if (!warmedUp) {
+			card.resetCanvas();
+			card.snapshot(parameters, image);
+			warmedUp = true;
+		    }
+		    final long start = System.nanoTime();
+		    for (int r = 0; r < repeat; ++r) {
+			card.resetCanvas();
+			card.snapshot(parameters, image);
+		    }
+		    final double millis = (System.nanoTime() - start) / 1e6 / repeat;
+		    if (millis > slowest) {
+			slowest = millis;
+			slowestName = name;
+		    }
+		    if (millis > budget) {
+			failed.add(String.format(Locale.ROOT, "%s: %.2f ms exceeds budget %.2f ms", name, millis, budget));
+		    }
+
+		    image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), actual, 0, width);
+		    final Path file = golden.resolve(name + ".png");
+		    if (update) {
+			PngWriter.write(file, actual, width, height);
+		    } else {
+			final String result = Files.exists(file) ? compare(file, actual, expected, width, height) : "missing golden";
+			if (result != null) {
+			    failed.add(name + ": " + result);
+			    Files.createDirectories(failures);
+			    PngWriter.write(failures.resolve(name + ".png"), actual, width, height);
+			}
+		    }
+		    ++checked;
+		}
+	    }
+	}
+
+	System.out.println(String.format(Locale.ROOT, "Checked %d renders, slowest %s at %.2f ms.", checked, slowestName, slowest));
+	for (final String message : failed) {
+	    System.out.println("FAILED " + message);
+	}
+	if (update) {
+	    System.out.println("Golden images updated in " + golden.toAbsolutePath());
+	}
+	return failed.isEmpty();
+    }
+
+    /**
+     * 將繪製結果與基準圖片比較。
+     *
+     * @param file 傳入基準圖片
+     * @param actual 傳入繪製結果的像素
+     * @param expected 傳入用來讀取基準圖片的陣列
+     * @param width 傳入寬度
+     * @param height 傳入高度
+     * @return 傳回不符合時的原因，符合時傳回null
+     */
+    private String compare(final Path file, final int[] actual, final int[] expected, final int width, final int height) {
+	final Image image = new Image(file.toUri().toString());
+	if (image.isError()) {
+	    return "cannot read golden image";
+	}
+	if ((int) image.getWidth() != width || (int) image.getHeight() != height) {
+	    return String.format(Locale.ROOT, "size %dx%d differs from golden %dx%d", width, height, (int) image.getWidth(), (int) image.getHeight());
+	}
+	image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), expected, 0, width);
+	int different = 0;
+	for (int i = 0; i < actual.length; ++i) {
+	    final int a = actual[i], e = expected[i];
+	    if (a == e) {
+		continue;
+	    }
+	    for (int shift = 0; shift < 32; shift += 8) {
+		if (Math.abs(((a >>> shift) & 0xFF) - ((e >>> shift) & 0xFF)) > tolerance) {
+		    ++different;
+		    break;
+		}
+	    }
+	}
+	final double ratio = (double) different / actual.length;
+	if (ratio > maxDiff) {
+	    return String.format(Locale.ROOT, "%.4f%% pixels differ (max %.4f%%)", ratio * 100, maxDiff * 100);
+	}
+	return null;
+    }
+}